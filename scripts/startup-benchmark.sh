@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+#
+# Compares startup time and resident memory of the scoreboard application started as
+#   jar    - the plain executable JAR
+#   cds    - the extracted JAR with an AppCDS archive from a training run
+#   native - the GraalVM native image (skipped when it has not been built)
+#
+# Build first:
+#   mvn -B -DskipTests package                      # target/vk-football-scoreboard-1.0-SNAPSHOT.jar
+#   mvn -B -DskipTests -Pnative native:compile      # target/vk-football-scoreboard (GraalVM JDK only)
+#
+# Usage: scripts/startup-benchmark.sh [runs] [port]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${2:-18081}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+TARGET="$ROOT/target"
+JAR="$TARGET/vk-football-scoreboard-1.0-SNAPSHOT.jar"
+NATIVE="$TARGET/vk-football-scoreboard"
+CDS_DIR="$TARGET/cds"
+READY_URL="http://localhost:$PORT/vk/scoreboard/summary"
+
+if [[ ! -f "$JAR" ]]; then
+    echo "Missing $JAR, run 'mvn -B -DskipTests package' first." >&2
+    exit 1
+fi
+
+now_millis() {
+    date +%s%3N
+}
+
+# Starts the given command, waits until the summary endpoint answers and prints "<millis> <rss-kb>".
+measure() {
+    local start pid rss
+    start=$(now_millis)
+    "$@" --server.port="$PORT" >/dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$READY_URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before it was ready: $*" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    echo -n "$(( $(now_millis) - start )) "
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    echo "$rss"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+report() {
+    local name=$1
+    shift
+    local total_ms=0 total_rss=0 result ms rss
+    for ((i = 1; i <= RUNS; i++)); do
+        result=$(measure "$@")
+        read -r ms rss <<<"$result"
+        total_ms=$((total_ms + ms))
+        total_rss=$((total_rss + rss))
+    done
+    printf "%-8s %12d %12d\n" "$name" $((total_ms / RUNS)) $((total_rss / RUNS / 1024))
+}
+
+# AppCDS: extract the JAR and record the classes loaded until the context is refreshed.
+prepare_cds() {
+    rm -rf "$CDS_DIR"
+    java -Djarmode=tools -jar "$JAR" extract --destination "$CDS_DIR" >/dev/null
+    java -XX:ArchiveClassesAtExit="$CDS_DIR/application.jsa" -Dspring.context.exit=onRefresh \
+        -jar "$CDS_DIR/$(basename "$JAR")" >/dev/null 2>&1
+}
+
+printf "%-8s %12s %12s\n" "variant" "ready (ms)" "RSS (MB)"
+report jar java -jar "$JAR"
+
+prepare_cds
+report cds java -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -jar "$CDS_DIR/$(basename "$JAR")"
+
+if [[ -x "$NATIVE" ]]; then
+    report native "$NATIVE"
+else
+    echo "native   skipped, run 'mvn -Pnative native:compile' with a GraalVM JDK first"
+fi
@@ -0,0 +1,28 @@
+package football;
+
+import football.scoreboard.Match;
+import football.scoreboard.alert.Alert;
+import football.scoreboard.clock.MatchClockView;
+import football.scoreboard.stats.MatchScore;
+import football.scoreboard.stats.ScoreboardStats;
+import football.scoreboard.stats.TeamGoals;
+import football.scoreboard.subscription.ScoreboardEvent;
+import football.scoreboard.subscription.SubscriptionEvents;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the types Jackson serializes in REST responses, needed when the application is compiled
+ * ahead of time into a native image (see the {@code native} Maven profile). The binding registrar also covers the
+ * types of their properties, such as the match of {@link ScoreboardStats}.
+ */
+public class ScoreboardRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Match.class, MatchClockView.class, ScoreboardEvent.class, SubscriptionEvents.class, Alert.class,
+                ScoreboardStats.class, MatchScore.class, TeamGoals.class);
+    }
+}
@@ -2,8 +2,10 @@ package football;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ScoreboardRuntimeHints.class)
 public class VKLiveFootballScoreboardApplication {
     public static void main(String[] args) {
         SpringApplication.run(VKLiveFootballScoreboardApplication.class, args);
@@ -0,0 +1,108 @@
+package football.config;
+
+import football.scoreboard.alert.AlertEngine;
+import football.scoreboard.alert.AlertFeed;
+import football.scoreboard.alert.AlertRule;
+import football.scoreboard.clock.MatchClockScheduler;
+import football.scoreboard.history.BoardHistory;
+import football.scoreboard.service.AbstractScoreboardEngine;
+import football.scoreboard.service.ReadWriteLockScoreboardEngine;
+import football.scoreboard.service.ScoreboardEngine;
+import football.scoreboard.service.ScoreboardService;
+import football.scoreboard.service.SingleWriterScoreboardEngine;
+import football.scoreboard.stats.ScoreboardStatistics;
+import football.scoreboard.store.CopyOnWriteMatchStore;
+import football.scoreboard.store.MatchStore;
+import football.scoreboard.store.OffHeapMatchStore;
+import football.scoreboard.subscription.SubscriptionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class ScoreboardConfiguration {
+
+    @Bean
+    public MatchStore matchStore(@Value("${scoreboard.store:heap}") String store,
+                                 @Value("${scoreboard.store.offheap.slots-per-chunk:4096}") int slotsPerChunk) {
+        return switch (store) {
+            case "heap" -> new CopyOnWriteMatchStore();
+            case "offheap" -> new OffHeapMatchStore(slotsPerChunk);
+            default -> throw new IllegalArgumentException("Unknown scoreboard.store: " + store + ", expected heap or offheap");
+        };
+    }
+
+    @Bean
+    public ScoreboardEngine scoreboardEngine(@Value("${scoreboard.engine:cow}") String engine,
+                                             @Value("${scoreboard.history.capacity:4096}") int historyCapacity,
+                                             @Value("${scoreboard.history.checkpoint-interval:64}") int checkpointInterval,
+                                             MatchStore matchStore) {
+        AbstractScoreboardEngine scoreboardEngine = switch (engine) {
+            case "cow" -> new ScoreboardService(matchStore);
+            case "single-writer" -> new SingleWriterScoreboardEngine(matchStore);
+            case "read-write" -> new ReadWriteLockScoreboardEngine(matchStore);
+            default -> throw new IllegalArgumentException("Unknown scoreboard.engine: " + engine + ", expected cow, single-writer or read-write");
+        };
+        //A capacity of 0 disables the history and the asOf queries
+        if (historyCapacity > 0) {
+            scoreboardEngine.attachHistory(new BoardHistory(historyCapacity, checkpointInterval, Clock.systemUTC()));
+        }
+        return scoreboardEngine;
+    }
+
+    @Bean
+    public MatchClockScheduler matchClockScheduler(ScoreboardEngine scoreboardEngine,
+                                                   @Value("${scoreboard.clock.tick-ms:1000}") long tickMillis,
+                                                   @Value("${scoreboard.clock.half-minutes:45}") long halfMinutes,
+                                                   @Value("${scoreboard.clock.half-time-minutes:15}") long halfTimeMinutes,
+                                                   @Value("${scoreboard.clock.extra-time-minutes:0}") long extraTimeMinutes,
+                                                   @Value("${scoreboard.clock.auto-finish-after-minutes:30}") long autoFinishAfterMinutes) {
+        MatchClockScheduler scheduler = new MatchClockScheduler(scoreboardEngine, Clock.systemUTC(),
+                new MatchClockScheduler.Settings(Duration.ofMinutes(halfMinutes), Duration.ofMinutes(halfTimeMinutes),
+                        Duration.ofMinutes(extraTimeMinutes), Duration.ofMinutes(autoFinishAfterMinutes),
+                        Duration.ofMillis(tickMillis)));
+        scoreboardEngine.addListener(scheduler);
+        scheduler.startTicking();
+        return scheduler;
+    }
+
+    @Bean
+    public SubscriptionRegistry subscriptionRegistry(ScoreboardEngine scoreboardEngine,
+                                                     @Value("${scoreboard.subscription.queue-capacity:1024}") int queueCapacity,
+                                                     @Value("${scoreboard.subscription.max-subscriptions:10000}") int maxSubscriptions,
+                                                     @Value("${scoreboard.subscription.max-per-client:100}") int maxPerClient,
+                                                     @Value("${scoreboard.subscription.max-top-n:100}") int maxTopN,
+                                                     @Value("${scoreboard.subscription.idle-ttl-ms:600000}") long idleTtlMillis) {
+        SubscriptionRegistry registry = new SubscriptionRegistry(queueCapacity, maxSubscriptions, maxPerClient,
+                maxTopN, idleTtlMillis, System::nanoTime);
+        scoreboardEngine.addListener(registry);
+        return registry;
+    }
+
+    @Bean
+    public AlertFeed alertFeed(@Value("${scoreboard.alert.feed-capacity:1024}") int capacity) {
+        return new AlertFeed(capacity);
+    }
+
+    @Bean
+    public AlertEngine alertEngine(ScoreboardEngine scoreboardEngine, AlertFeed alertFeed,
+                                   @Value("${scoreboard.alert.rules:}") String rules) {
+        //Rules are compiled once here, an invalid rule fails the startup
+        AlertEngine alertEngine = new AlertEngine(AlertRule.compileAll(rules), alertFeed, Clock.systemUTC());
+        scoreboardEngine.addListener(alertEngine);
+        return alertEngine;
+    }
+
+    @Bean
+    public ScoreboardStatistics scoreboardStatistics(ScoreboardEngine scoreboardEngine,
+                                                     @Value("${scoreboard.stats.window-minutes:15}") long windowMinutes,
+                                                     @Value("${scoreboard.stats.buckets:90}") int buckets) {
+        //Today is the local day of the server
+        ScoreboardStatistics statistics = new ScoreboardStatistics(Clock.systemDefaultZone(), Duration.ofMinutes(windowMinutes), buckets);
+        scoreboardEngine.addListener(statistics);
+        return statistics;
+    }
+}
@@ -1,76 +1,296 @@
 package football.controller;
 
+import football.controller.encoding.EncodedPayload;
+import football.controller.encoding.PrecompressedPayloads;
+import football.controller.guard.ClientRateLimiter;
+import football.controller.guard.IdempotencyCache;
+import football.controller.guard.ScoreUpdateCoalescer;
+import football.controller.stream.AlertStreams;
 import football.scoreboard.Match;
-import football.scoreboard.service.ScoreboardService;
+import football.scoreboard.SummaryOrder;
+import football.scoreboard.alert.Alert;
+import football.scoreboard.alert.AlertFeed;
+import football.scoreboard.clock.MatchClockScheduler;
+import football.scoreboard.clock.MatchClockView;
+import football.scoreboard.service.ScoreboardEngine;
+import football.scoreboard.stats.ScoreboardStatistics;
+import football.scoreboard.stats.ScoreboardStats;
+import football.scoreboard.stats.TeamGoals;
+import football.scoreboard.subscription.InterestFilter;
+import football.scoreboard.subscription.Subscription;
+import football.scoreboard.subscription.SubscriptionRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.security.Principal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
-import static football.scoreboard.service.ScoreboardService.*;
+import static football.scoreboard.service.ScoreboardEngine.*;
 
 @RestController
 @RequestMapping("/vk/scoreboard")
 public class ScoreboardController {
     public static final String INVALID_MATCH_INDEX = "Invalid match index: ";
     public static final String UPDATED_FOR_MATCH_AT_INDEX = "Score updated for match at index ";
+    public static final String UPDATE_ACCEPTED_FOR_MATCH_AT_INDEX = "Score update accepted for match at index ";
     public static final String FINISHED_AT_INDEX = "Match finished at index: ";
     public static final String SCOREBOARD_HAS_BEEN_RESET = "Scoreboard has been reset.";
+    public static final String TOO_MANY_REQUESTS = "Too many requests, slow down.";
+    public static final String BOARD_VERSION_HEADER = "X-Board-Version";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String SUBSCRIPTION_REMOVED = "Subscription removed: ";
 
-    private final ScoreboardService scoreboardService = new ScoreboardService();
+    private final ScoreboardEngine scoreboardEngine;
+    private final ClientRateLimiter rateLimiter;
+    private final ScoreUpdateCoalescer scoreUpdateCoalescer;
+    private final MatchClockScheduler matchClockScheduler;
+    private final SubscriptionRegistry subscriptionRegistry;
+    private final AlertFeed alertFeed;
+    private final AlertStreams alertStreams;
+    private final PrecompressedPayloads payloads;
+    private final IdempotencyCache idempotencyCache;
+    private final ScoreboardStatistics statistics;
+
+    public ScoreboardController(ScoreboardEngine scoreboardEngine, ClientRateLimiter rateLimiter,
+                                ScoreUpdateCoalescer scoreUpdateCoalescer, MatchClockScheduler matchClockScheduler,
+                                SubscriptionRegistry subscriptionRegistry, AlertFeed alertFeed, AlertStreams alertStreams,
+                                PrecompressedPayloads payloads, IdempotencyCache idempotencyCache,
+                                ScoreboardStatistics statistics) {
+        this.scoreboardEngine = scoreboardEngine;
+        this.rateLimiter = rateLimiter;
+        this.idempotencyCache = idempotencyCache;
+        this.scoreUpdateCoalescer = scoreUpdateCoalescer;
+        this.matchClockScheduler = matchClockScheduler;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.alertFeed = alertFeed;
+        this.alertStreams = alertStreams;
+        this.payloads = payloads;
+        this.statistics = statistics;
+    }
 
     @GetMapping("/matches")
-    public List<Match> getMatches() {
-        return scoreboardService.getMatches();
+    public ResponseEntity<?> getMatches(@RequestParam(value = "team", required = false) String team,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (StringUtils.hasText(team)) {
+            return ResponseEntity.ok(scoreboardEngine.findMatchesByTeam(team));
+        }
+        return encoded(payloads.matches(), acceptEncoding);
     }
 
     @PostMapping("/matches")
     public ResponseEntity<String> startMatch(@RequestParam("homeTeam") String homeTeam,
-                                             @RequestParam("awayTeam") String awayTeam) {
-        if (!StringUtils.hasText(homeTeam) || !StringUtils.hasText(awayTeam)) {
-            return ResponseEntity.badRequest().body(CANNOT_BE_NULL_OR_EMPTY);
+                                             @RequestParam("awayTeam") String awayTeam,
+                                             HttpServletRequest request) {
+        return idempotent(request, () -> {
+            if (!rateLimiter.tryAcquire(clientIdOf(request))) {
+                return tooManyRequests();
+            }
+            if (!StringUtils.hasText(homeTeam) || !StringUtils.hasText(awayTeam)) {
+                return ResponseEntity.badRequest().body(CANNOT_BE_NULL_OR_EMPTY);
+            }
+            try {
+                scoreboardEngine.startMatch(homeTeam, awayTeam);
+                return ResponseEntity.ok("Match started: " + homeTeam + " vs " + awayTeam);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    @PutMapping("/matches/{index}/score")
+    public ResponseEntity<String> updateScore(@PathVariable("index") int index,
+                                              @RequestParam("homeScore") int homeScore,
+                                              @RequestParam("awayScore") int awayScore,
+                                              HttpServletRequest request) {
+        return idempotent(request, () -> {
+            if (!rateLimiter.tryAcquire(clientIdOf(request))) {
+                return tooManyRequests();
+            }
+            try {
+                scoreboardEngine.validateScoreUpdate(index, homeScore, awayScore);
+                long matchId = scoreboardEngine.getMatch(index).getId();
+                return switch (scoreUpdateCoalescer.submit(matchId, homeScore, awayScore, scoreboardEngine::updateScoreById)) {
+                    case APPLIED -> ResponseEntity.ok(UPDATED_FOR_MATCH_AT_INDEX + index);
+                    //Applied when the coalescing window ends, unless the match is finished before
+                    case PENDING -> ResponseEntity.accepted().body(UPDATE_ACCEPTED_FOR_MATCH_AT_INDEX + index);
+                    case MATCH_FINISHED -> ResponseEntity.badRequest().body(INVALID_MATCH_INDEX + index);
+                };
+            } catch (IndexOutOfBoundsException e) {
+                return ResponseEntity.badRequest().body(INVALID_MATCH_INDEX + index);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(CANNOT_BE_NEGATIVE);
+            }
+        });
+    }
+
+    @DeleteMapping("/matches/{index}")
+    public ResponseEntity<String> finishMatch(@PathVariable("index") int index, HttpServletRequest request) {
+        return idempotent(request, () -> {
+            if (!rateLimiter.tryAcquire(clientIdOf(request))) {
+                return tooManyRequests();
+            }
+            try {
+                scoreboardEngine.finishMatch(index);
+                return ResponseEntity.ok(FINISHED_AT_INDEX + index);
+            } catch (IndexOutOfBoundsException e) {
+                return ResponseEntity.badRequest().body(INVALID_MATCH_INDEX + index);
+            }
+        });
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<?> getSummary(@RequestParam(value = "asOfVersion", required = false) Long asOfVersion,
+                                        @RequestParam(value = "asOf", required = false) Instant asOf,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (asOfVersion == null && asOf == null) {
+            return encoded(payloads.summary(), acceptEncoding);
         }
         try {
-            scoreboardService.startMatch(homeTeam, awayTeam);
-            return ResponseEntity.ok("Match started: " + homeTeam + " vs " + awayTeam);
+            List<Match> sorted = asOfVersion != null
+                    ? scoreboardEngine.getSortedMatches(asOfVersion)
+                    : scoreboardEngine.getSortedMatches(asOf);
+            return ResponseEntity.ok(SummaryOrder.format(sorted));
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(ALREADY_EXISTS);
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    @PutMapping("/matches/{index}/score")
-    public ResponseEntity<String> updateScore(@PathVariable("index") int index,
-                                              @RequestParam("homeScore") int homeScore,
-                                              @RequestParam("awayScore") int awayScore) {
+    @GetMapping("/clock")
+    public List<MatchClockView> getClocks() {
+        return matchClockScheduler.clocksOf(scoreboardEngine.getMatches());
+    }
+
+    @PostMapping("/subscriptions")
+    public ResponseEntity<String> subscribe(@RequestParam(value = "team", required = false) Set<String> teams,
+                                            @RequestParam(value = "matchId", required = false) Set<Long> matchIds,
+                                            @RequestParam(value = "minTotalScore", required = false) Integer minTotalScore,
+                                            @RequestParam(value = "topN", required = false) Integer topN,
+                                            HttpServletRequest request) {
+        return idempotent(request, () -> {
+            if (!rateLimiter.tryAcquire(clientIdOf(request))) {
+                return tooManyRequests();
+            }
+            try {
+                Subscription subscription = subscriptionRegistry.subscribe(new InterestFilter(teams, matchIds, minTotalScore, topN),
+                        clientIdOf(request));
+                return ResponseEntity.ok(subscription.getId());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+            }
+        });
+    }
+
+    @GetMapping("/subscriptions/{id}/events")
+    public ResponseEntity<?> pollSubscription(@PathVariable("id") String id,
+                                              @RequestParam(value = "max", defaultValue = "100") int max) {
         try {
-            scoreboardService.updateScore(index, homeScore, awayScore);
-            return ResponseEntity.ok(UPDATED_FOR_MATCH_AT_INDEX + index);
-        } catch (IndexOutOfBoundsException e) {
-            return ResponseEntity.badRequest().body(INVALID_MATCH_INDEX + index);
+            return ResponseEntity.ok(subscriptionRegistry.poll(id, Math.max(1, max)));
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(CANNOT_BE_NEGATIVE);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         }
     }
 
-    @DeleteMapping("/matches/{index}")
-    public ResponseEntity<String> finishMatch(@PathVariable("index") int index) {
+    @GetMapping("/subscriptions/{id}/matches")
+    public ResponseEntity<?> getSubscribedMatches(@PathVariable("id") String id) {
         try {
-            scoreboardService.finishMatch(index);
-            return ResponseEntity.ok(FINISHED_AT_INDEX + index);
-        } catch (IndexOutOfBoundsException e) {
-            return ResponseEntity.badRequest().body(INVALID_MATCH_INDEX + index);
+            return ResponseEntity.ok(subscriptionRegistry.matchesFor(id, scoreboardEngine.getSortedMatches()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         }
     }
 
-    @GetMapping("/summary")
-    public ResponseEntity<List<String>> getSummary() {
-        return ResponseEntity.ok(scoreboardService.getFormatedSortedSummary());
+    @DeleteMapping("/subscriptions/{id}")
+    public ResponseEntity<String> unsubscribe(@PathVariable("id") String id) {
+        if (!subscriptionRegistry.unsubscribe(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(SubscriptionRegistry.UNKNOWN_SUBSCRIPTION + id);
+        }
+        return ResponseEntity.ok(SUBSCRIPTION_REMOVED + id);
+    }
+
+    @GetMapping("/alerts")
+    public List<Alert> getAlerts(@RequestParam(value = "since", defaultValue = "0") long since,
+                                 @RequestParam(value = "max", defaultValue = "100") int max) {
+        return alertFeed.since(since, max);
+    }
+
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(@RequestParam(value = "since", required = false) Long since,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        //A reconnecting EventSource sends the id of the last alert it received
+        long after = lastEventId != null ? lastEventId : since != null ? since : alertFeed.getLastSequence();
+        return alertStreams.open(after);
+    }
+
+    @GetMapping("/stats")
+    public ScoreboardStats getStats() {
+        return statistics.snapshot();
+    }
+
+    @GetMapping("/stats/teams/{team}")
+    public TeamGoals getTeamStats(@PathVariable("team") String team) {
+        return statistics.goalsOf(team);
     }
 
     @PostMapping("/reset")
-    public ResponseEntity<String> resetScoreboard() {
-        scoreboardService.reset();
-        return ResponseEntity.ok(SCOREBOARD_HAS_BEEN_RESET);
+    public ResponseEntity<String> resetScoreboard(HttpServletRequest request) {
+        return idempotent(request, () -> {
+            if (!rateLimiter.tryAcquire(clientIdOf(request))) {
+                return tooManyRequests();
+            }
+            scoreboardEngine.reset();
+            return ResponseEntity.ok(SCOREBOARD_HAS_BEEN_RESET);
+        });
+    }
+
+    //A retry with the same Idempotency-Key gets the original response, before it takes a rate limit token
+    private ResponseEntity<String> idempotent(HttpServletRequest request, Supplier<ResponseEntity<String>> mutation) {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return mutation.get();
+        }
+        return idempotencyCache.execute(clientIdOf(request), idempotencyKey, fingerprintOf(request), mutation);
+    }
+
+    private static String fingerprintOf(HttpServletRequest request) {
+        StringBuilder fingerprint = new StringBuilder(request.getMethod()).append(' ').append(request.getRequestURI());
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            fingerprint.append('&').append(parameter.getKey()).append('=').append(String.join(",", parameter.getValue()));
+        }
+        return fingerprint.toString();
+    }
+
+    //Only identities the client cannot pick freely: a header would give a new rate limit bucket per value
+    private static String clientIdOf(HttpServletRequest request) {
+        Principal user = request.getUserPrincipal();
+        return user != null ? "user:" + user.getName() : request.getRemoteAddr();
+    }
+
+    private static ResponseEntity<String> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(TOO_MANY_REQUESTS);
+    }
+
+    //The cached bytes are sent as they are, gzip when the client accepts it and it makes the payload smaller
+    private static ResponseEntity<byte[]> encoded(EncodedPayload payload, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(BOARD_VERSION_HEADER, Long.toString(payload.version()));
+        if (payload.gzip() != null && PrecompressedPayloads.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.identity());
     }
 }
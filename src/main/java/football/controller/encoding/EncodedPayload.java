@@ -0,0 +1,8 @@
+package football.controller.encoding;
+
+/**
+ * The JSON bytes of a payload as rendered at a board version, with its gzip encoding. {@code gzip} is null when
+ * compression would not make the payload smaller.
+ */
+public record EncodedPayload(long version, byte[] identity, byte[] gzip) {
+}
@@ -0,0 +1,133 @@
+package football.controller.encoding;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import football.scoreboard.service.ScoreboardEngine;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON and gzip bytes of the summary and the match listing, rendered once per board version and shared by every
+ * request for that version, so the cost of serializing and compressing is paid per change instead of per poll.
+ * <p>
+ * A payload is rendered on the first request after a change, not on the change itself, so bursts of writes between
+ * two polls cost nothing. The version is read before the board, and engines make a change visible before they
+ * increment the version, so a payload is never older than the version it is cached under.
+ * <p>
+ * Rendering goes through the {@link ObjectMapper} Spring Boot configures for its HTTP message converters, so the
+ * bytes are the same the converters would write for the uncached endpoints.
+ */
+@Component
+public class PrecompressedPayloads {
+    private static final String GZIP = "gzip";
+
+    private final ScoreboardEngine scoreboardEngine;
+    private final ObjectMapper objectMapper;
+    private final Cached summary;
+    private final Cached matches;
+
+    public PrecompressedPayloads(ScoreboardEngine scoreboardEngine, ObjectMapper objectMapper) {
+        this.scoreboardEngine = scoreboardEngine;
+        this.objectMapper = objectMapper;
+        this.summary = new Cached(scoreboardEngine::getFormatedSortedSummary);
+        this.matches = new Cached(scoreboardEngine::getMatches);
+    }
+
+    public EncodedPayload summary() {
+        return summary.current();
+    }
+
+    public EncodedPayload matches() {
+        return matches.current();
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header value accepts gzip: {@code gzip}, {@code x-gzip} or {@code *} with a
+     * non-zero quality, unless gzip itself is refused with {@code q=0}.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = qualityOf(parts) > 0;
+            if (name.equals(GZIP) || name.equals("x-gzip")) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard;
+    }
+
+    private static double qualityOf(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private final class Cached {
+        private final Supplier<?> body;
+        private volatile EncodedPayload payload = new EncodedPayload(-1, null, null);
+
+        private Cached(Supplier<?> body) {
+            this.body = body;
+        }
+
+        private EncodedPayload current() {
+            long version = scoreboardEngine.getVersion();
+            EncodedPayload cached = payload;
+            if (cached.version() >= version) {
+                return cached;
+            }
+            //Concurrent polls of a new version wait for one rendering instead of each rendering it
+            synchronized (this) {
+                cached = payload;
+                if (cached.version() >= version) {
+                    return cached;
+                }
+                byte[] identity = render(body.get());
+                byte[] gzip = gzip(identity);
+                cached = new EncodedPayload(version, identity, gzip.length < identity.length ? gzip : null);
+                payload = cached;
+                return cached;
+            }
+        }
+
+        private byte[] render(Object value) {
+            try {
+                return objectMapper.writeValueAsBytes(value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,109 @@
+package football.controller.guard;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token bucket for the mutation endpoints.
+ * <p>
+ * Every bucket is a single {@link AtomicLong} holding the time at which it will be full again (the GCRA form of
+ * a token bucket), so acquiring a token is one CAS and needs no lock. The number of tracked clients is capped.
+ * Clients are queued in the order they were first seen, and a new client makes room with a CLOCK sweep over the
+ * oldest ones: a bucket that has refilled completely carries no state and is dropped, a bucket still in use goes back
+ * to the end of the queue. Only a few buckets are looked at per new client, and a client that still does not fit
+ * shares one overflow bucket.
+ */
+@Component
+public class ClientRateLimiter {
+    //Buckets looked at by a new client before it falls back to the overflow bucket
+    static final int EVICTION_PROBES = 8;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> clock = new ConcurrentLinkedQueue<>();
+    //Full from the start, whatever the clock reads
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+
+    @Autowired
+    public ClientRateLimiter(@Value("${scoreboard.rate-limit.capacity:200}") int capacity,
+                             @Value("${scoreboard.rate-limit.refill-per-second:100}") int refillPerSecond,
+                             @Value("${scoreboard.rate-limit.max-clients:10000}") int maxClients) {
+        this(capacity, refillPerSecond, maxClients, System::nanoTime);
+    }
+
+    public ClientRateLimiter(int capacity, int refillPerSecond, int maxClients, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("Rate limit capacity, refill rate and max clients must be positive.");
+        }
+        this.emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / refillPerSecond;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token from the client's bucket, returning false when the bucket is empty.
+     */
+    public boolean tryAcquire(String clientId) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucketOf(clientId, now);
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            if (start - now > burstToleranceNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(fullAt, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    int trackedClients() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketOf(String clientId, long now) {
+        AtomicLong bucket = buckets.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients && !evictFullBucket(now)) {
+            return overflow;
+        }
+        AtomicLong created = new AtomicLong(now);
+        bucket = buckets.putIfAbsent(clientId, created);
+        if (bucket != null) {
+            return bucket;
+        }
+        clock.add(clientId);
+        return created;
+    }
+
+    private boolean evictFullBucket(long now) {
+        for (int i = 0; i < EVICTION_PROBES; i++) {
+            String candidate = clock.poll();
+            if (candidate == null) {
+                return false;
+            }
+            AtomicLong bucket = buckets.get(candidate);
+            //A bucket whose refill time has passed is full, so forgetting it does not change its client's limit.
+            if (bucket.get() <= now) {
+                buckets.remove(candidate, bucket);
+                return true;
+            }
+            clock.add(candidate);
+        }
+        return false;
+    }
+}
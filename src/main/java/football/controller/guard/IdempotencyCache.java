@@ -0,0 +1,133 @@
+package football.controller.guard;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Responses of the mutation endpoints by client and {@code Idempotency-Key}, so that a retried request gets the
+ * original response instead of being applied again.
+ * <p>
+ * The first request with a key runs the mutation, and retries arriving while it runs wait for its response instead
+ * of running it again. Rejections that a retry should be able to get past ({@code 429} and server errors) are not
+ * kept. Every key lives for the same time, so expiry order is queue order: kept keys are expired and, at the size cap,
+ * evicted from the head of one FIFO queue, which costs O(1) per request and needs no lock or timer thread.
+ */
+@Component
+public class IdempotencyCache {
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key was already used for a different request.";
+    public static final String IDEMPOTENCY_KEY_TOO_LONG = "Idempotency key cannot be longer than 255 characters.";
+    static final int MAX_KEY_LENGTH = 255;
+    static final int KEY_REUSED_STATUS = 422;
+
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+
+    private record Entry(String key, String fingerprint, long expiresAt, CompletableFuture<ResponseEntity<String>> response) {
+    }
+
+    @Autowired
+    public IdempotencyCache(@Value("${scoreboard.idempotency.ttl-ms:600000}") long ttlMillis,
+                            @Value("${scoreboard.idempotency.max-keys:100000}") int maxKeys) {
+        this(ttlMillis, maxKeys, System::nanoTime);
+    }
+
+    public IdempotencyCache(long ttlMillis, int maxKeys, LongSupplier nanoClock) {
+        if (ttlMillis < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Idempotency key time to live and max keys must be positive.");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Runs the mutation once per client and key within the time to live, and returns its response to every request
+     * with that key. A key reused for a request with another fingerprint (method, path and parameters) is answered
+     * with {@value #KEY_REUSED_STATUS}, a key over {@value #MAX_KEY_LENGTH} characters with {@code 400}, without
+     * running the mutation. An exception thrown by the mutation is rethrown to the request that ran it and to the
+     * retries waiting for it, and the key is released so that a later retry runs the mutation again.
+     */
+    public ResponseEntity<String> execute(String clientId, String idempotencyKey, String fingerprint,
+                                          Supplier<ResponseEntity<String>> mutation) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(IDEMPOTENCY_KEY_TOO_LONG);
+        }
+        long now = nanoClock.getAsLong();
+        evict(now);
+        String key = clientId + '\n' + idempotencyKey;
+        Entry entry = new Entry(key, fingerprint, now + ttlNanos, new CompletableFuture<>());
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (existing.expiresAt() - now > 0) {
+                if (!existing.fingerprint().equals(fingerprint)) {
+                    return ResponseEntity.status(KEY_REUSED_STATUS).body(IDEMPOTENCY_KEY_REUSED);
+                }
+                return awaitResponse(existing);
+            }
+            //Expired but not evicted yet, its queue entry is dropped on the next eviction
+            entries.remove(key, existing);
+        }
+
+        ResponseEntity<String> response;
+        try {
+            response = mutation.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+        //Only kept responses are queued, so rejected retries cannot grow the queue beyond the cap
+        if (isFinal(response)) {
+            expiryQueue.add(entry);
+        } else {
+            entries.remove(key, entry);
+        }
+        entry.response().complete(response);
+        return response;
+    }
+
+    private static ResponseEntity<String> awaitResponse(Entry entry) {
+        try {
+            return entry.response().join();
+        } catch (CompletionException e) {
+            //Only runtime exceptions complete a response exceptionally
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Entry head;
+        //Leave room for the key about to be added
+        while ((head = expiryQueue.peek()) != null && (head.expiresAt() - now <= 0 || entries.size() >= maxKeys)) {
+            if (expiryQueue.remove(head)) {
+                entries.remove(head.key(), head);
+            }
+        }
+    }
+
+    private static boolean isFinal(ResponseEntity<String> response) {
+        int status = response.getStatusCode().value();
+        return status != HttpStatus.TOO_MANY_REQUESTS.value() && status < 500;
+    }
+}
@@ -0,0 +1,98 @@
+package football.controller.guard;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces score updates of the same match that arrive within a short window into one applied write.
+ * <p>
+ * The first update of a match in a window schedules a flush, later ones only replace the pending score, so the
+ * board changes at most once per match and window however fast a client writes. A window of zero applies every
+ * update immediately on the calling thread.
+ * <p>
+ * Pending updates are keyed by the {@link football.scoreboard.Match#getId() match id} resolved when they are
+ * submitted, so a finish that shifts the board while an update is pending cannot move it to another match. An update
+ * of a match that is finished before the flush is dropped.
+ */
+@Component
+public class ScoreUpdateCoalescer {
+    private static final Logger log = LoggerFactory.getLogger(ScoreUpdateCoalescer.class);
+    private final long windowMillis;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentHashMap<Long, PendingScore> pending = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface ScoreWriter {
+        /**
+         * @return false if the match is no longer on the board
+         */
+        boolean updateScore(long matchId, int homeScore, int awayScore);
+    }
+
+    public enum Outcome {
+        APPLIED, PENDING, MATCH_FINISHED
+    }
+
+    private record PendingScore(int homeScore, int awayScore, ScoreWriter writer) {
+    }
+
+    @Autowired
+    public ScoreUpdateCoalescer(@Value("${scoreboard.coalesce.window-ms:0}") long windowMillis) {
+        this(windowMillis, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-update-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public ScoreUpdateCoalescer(long windowMillis, ScheduledExecutorService flusher) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Coalescing window cannot be negative.");
+        }
+        this.windowMillis = windowMillis;
+        this.flusher = flusher;
+    }
+
+    /**
+     * Applies the update now when there is no window, otherwise leaves it pending until the window of its match ends.
+     */
+    public Outcome submit(long matchId, int homeScore, int awayScore, ScoreWriter writer) {
+        if (windowMillis == 0) {
+            return writer.updateScore(matchId, homeScore, awayScore) ? Outcome.APPLIED : Outcome.MATCH_FINISHED;
+        }
+        PendingScore update = new PendingScore(homeScore, awayScore, writer);
+        //put() returns null only for the first update of the window, which is the one that schedules the flush.
+        if (pending.put(matchId, update) == null) {
+            flusher.schedule(() -> flush(matchId), windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return Outcome.PENDING;
+    }
+
+    private void flush(long matchId) {
+        PendingScore update = pending.remove(matchId);
+        if (update == null) {
+            return;
+        }
+        try {
+            //Returns false when the match was finished while the update was pending, there is nothing left to update.
+            update.writer().updateScore(matchId, update.homeScore(), update.awayScore());
+        } catch (RuntimeException e) {
+            //Nobody waits for a flush, so its failure would otherwise go unnoticed
+            log.error("Pending score update of match {} failed", matchId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+    }
+}
@@ -0,0 +1,131 @@
+package football.controller.stream;
+
+import football.scoreboard.alert.Alert;
+import football.scoreboard.alert.AlertFeed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event streams of the {@link AlertFeed}.
+ * <p>
+ * Sending never happens on the thread that fired the alert, which delivers an engine change that writers wait for.
+ * Every stream has its own sender, which takes a pooled daemon thread only while the stream has alerts to catch up
+ * on, so a client that reads slowly only delays its own stream. The threads are platform threads, as a send blocked
+ * on a slow client holds the emitter's monitor and would pin the carrier of a virtual thread.
+ * <p>
+ * Whenever the feed grows, every stream is caught up from the feed starting after the last alert it was sent. A new
+ * stream is caught up the same way, so replayed and live alerts arrive once and in order. The feed is the only
+ * backlog: a stream that falls more than the feed capacity behind skips the alerts overwritten meanwhile, which its
+ * client can tell from the gap in the event ids.
+ */
+@Component
+public class AlertStreams {
+    private static final int BATCH = 256;
+
+    private final AlertFeed feed;
+    private final long timeoutMillis;
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "alert-stream-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+
+    //lastSequence is only touched by the stream's sender, which never runs twice at the same time
+    private static final class Stream {
+        private final SseEmitter emitter;
+        //Catch up requests since the sender started, the sender is started by the first one
+        private final AtomicInteger wakeUps = new AtomicInteger();
+        private long lastSequence;
+
+        private Stream(SseEmitter emitter, long lastSequence) {
+            this.emitter = emitter;
+            this.lastSequence = lastSequence;
+        }
+    }
+
+    public AlertStreams(AlertFeed feed, @Value("${scoreboard.alert.stream-timeout-ms:0}") long timeoutMillis) {
+        this.feed = feed;
+        this.timeoutMillis = timeoutMillis;
+        feed.addListener(this::wakeUpAll);
+    }
+
+    /**
+     * Opens a stream that first replays the alerts after {@code since} still in the feed, then sends new ones.
+     */
+    public SseEmitter open(long since) {
+        //0 means no timeout for SseEmitter
+        return open(since, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter open(long since, SseEmitter emitter) {
+        Stream stream = new Stream(emitter, since);
+        streams.add(stream);
+        emitter.onCompletion(() -> streams.remove(stream));
+        emitter.onTimeout(() -> streams.remove(stream));
+        emitter.onError(error -> streams.remove(stream));
+        wakeUp(stream);
+        return emitter;
+    }
+
+    public int openStreams() {
+        return streams.size();
+    }
+
+    private void wakeUpAll() {
+        for (Stream stream : streams) {
+            wakeUp(stream);
+        }
+    }
+
+    private void wakeUp(Stream stream) {
+        if (stream.wakeUps.getAndIncrement() == 0) {
+            senders.execute(() -> send(stream));
+        }
+    }
+
+    //Catches up until no wake up came in meanwhile, so an alert added during a catch up is never left unsent
+    private void send(Stream stream) {
+        int wakeUps;
+        do {
+            wakeUps = stream.wakeUps.get();
+            catchUp(stream);
+        } while (!stream.wakeUps.compareAndSet(wakeUps, 0));
+    }
+
+    private void catchUp(Stream stream) {
+        try {
+            List<Alert> alerts;
+            do {
+                alerts = feed.since(stream.lastSequence, BATCH);
+                for (Alert alert : alerts) {
+                    stream.emitter.send(SseEmitter.event()
+                            .id(Long.toString(alert.sequence()))
+                            .name("alert")
+                            .data(alert));
+                    stream.lastSequence = alert.sequence();
+                }
+            } while (alerts.size() == BATCH);
+        } catch (IOException | IllegalStateException e) {
+            //The client went away
+            streams.remove(stream);
+            stream.emitter.completeWithError(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        streams.forEach(stream -> stream.emitter.complete());
+    }
+}
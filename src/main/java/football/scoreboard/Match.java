@@ -1,44 +1,59 @@
 package football.scoreboard;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Match {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id;
     private final String homeTeam;
     private final String awayTeam;
-    //AtomicInteger allows safe increment and read operations without the need for synchronization.
-    private final AtomicInteger homeScore = new AtomicInteger(0);
-    private final AtomicInteger awayScore = new AtomicInteger(0);
+    //Both scores are packed into one AtomicLong, so a reader can never see the home score of one update
+    //together with the away score of another.
+    private final AtomicLong score;
     private final LocalDateTime startTime;
 
     public Match(String homeTeam, String awayTeam) {
+        this.id = nextId();
         this.homeTeam = homeTeam;
         this.awayTeam = awayTeam;
         this.startTime = LocalDateTime.now();
+        this.score = new AtomicLong(0);
     }
 
-    public String getHomeTeam() {
-        return homeTeam;
+    //For subclasses that keep the score elsewhere and override getPackedScore() and setPackedScore().
+    protected Match(long id, String homeTeam, String awayTeam, LocalDateTime startTime) {
+        this.id = id;
+        this.homeTeam = homeTeam;
+        this.awayTeam = awayTeam;
+        this.startTime = startTime;
+        this.score = null;
     }
 
-    public String getAwayTeam() {
-        return awayTeam;
+    //Ids are unique for the lifetime of the JVM and never reused, unlike match indices.
+    protected static long nextId() {
+        return NEXT_ID.incrementAndGet();
     }
 
-    private void setHomeScore(int score) {
-        homeScore.set(score);
+    public long getId() {
+        return id;
     }
 
-    private void setAwayScore(int score) {
-        awayScore.set(score);
+    public String getHomeTeam() {
+        return homeTeam;
+    }
+
+    public String getAwayTeam() {
+        return awayTeam;
     }
 
     public int getHomeScore() {
-        return homeScore.get();
+        return homeScoreOf(getPackedScore());
     }
 
     public int getAwayScore() {
-        return awayScore.get();
+        return awayScoreOf(getPackedScore());
     }
 
     public LocalDateTime getStartTime() {
@@ -46,16 +61,37 @@ public class Match {
     }
 
     public void updateScore(int homeScore, int awayScore) {
-        setHomeScore(homeScore);
-        setAwayScore(awayScore);
+        setPackedScore(pack(homeScore, awayScore));
     }
 
     public int getTotalScore() {
-        return getHomeScore() + getAwayScore();
+        long current = getPackedScore();
+        return homeScoreOf(current) + awayScoreOf(current);
+    }
+
+    protected long getPackedScore() {
+        return score.get();
+    }
+
+    protected void setPackedScore(long packedScore) {
+        score.set(packedScore);
+    }
+
+    protected static long pack(int homeScore, int awayScore) {
+        return ((long) homeScore << 32) | (awayScore & 0xFFFFFFFFL);
+    }
+
+    protected static int homeScoreOf(long packedScore) {
+        return (int) (packedScore >>> 32);
+    }
+
+    protected static int awayScoreOf(long packedScore) {
+        return (int) packedScore;
     }
 
     @Override
     public String toString() {
-        return homeTeam + " " + homeScore + " - " + awayScore + " " + awayTeam;
+        long current = getPackedScore();
+        return homeTeam + " " + homeScoreOf(current) + " - " + awayScoreOf(current) + " " + awayTeam;
     }
 }
@@ -0,0 +1,39 @@
+package football.scoreboard;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Order of the scoreboard summary: higher total score first, and the most recently started match first on equal
+ * totals.
+ */
+public final class SummaryOrder {
+
+    private SummaryOrder() {
+    }
+
+    public static List<Match> sort(Collection<Match> matches) {
+        //Total scores are read once per match before sorting. Reading them inside the comparator would let a concurrent
+        //updateScore change a key mid-sort and break the comparator contract.
+        return matches.stream()
+                .map(match -> new RankedMatch(match, match.getTotalScore()))
+                .sorted(RankedMatch.SUMMARY_ORDER)
+                .map(RankedMatch::match)
+                .collect(Collectors.toList());
+    }
+
+    public static List<String> format(List<Match> sorted) {
+        return IntStream.range(0, sorted.size())
+                .mapToObj(i -> (i + 1) + ". " + sorted.get(i).toString())
+                .collect(Collectors.toList());
+    }
+
+    private record RankedMatch(Match match, int totalScore) {
+        static final Comparator<RankedMatch> SUMMARY_ORDER = Comparator.comparingInt(RankedMatch::totalScore)
+                .reversed()
+                .thenComparing(Comparator.comparing((RankedMatch ranked) -> ranked.match().getStartTime()).reversed());
+    }
+}
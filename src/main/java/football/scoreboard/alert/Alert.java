@@ -0,0 +1,11 @@
+package football.scoreboard.alert;
+
+import java.time.Instant;
+
+/**
+ * A fired alert. Sequences start at 1 and increase by one per alert, so clients can ask for the alerts after the
+ * last one they saw.
+ */
+public record Alert(long sequence, long version, String rule, long matchId, String homeTeam, String awayTeam,
+                    int homeScore, int awayScore, Instant firedAt) {
+}
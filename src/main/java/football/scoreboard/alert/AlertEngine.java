@@ -0,0 +1,119 @@
+package football.scoreboard.alert;
+
+import football.scoreboard.Match;
+import football.scoreboard.index.MatchRanking;
+import football.scoreboard.service.ScoreboardListener;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates the compiled {@link AlertRule}s against the match each change touched, and adds an {@link Alert} to
+ * the feed when a rule becomes true for that match.
+ * <p>
+ * Rules are edge-triggered: a rule fires when it was false for the match before the change and is true after it,
+ * so a 5 goal match alerts once, not on every later goal. The touched match is evaluated, and so are the matches
+ * whose rank it shifted within the deepest rank any rule compares, e.g. the match a goal pushed out of the top 3 or
+ * the one a finish pulled into it. The cost of a change is therefore the number of rules times that rank depth,
+ * independent of the board size.
+ */
+public class AlertEngine implements ScoreboardListener {
+    private final List<AlertRule> rules;
+    private final AlertFeed feed;
+    private final Clock clock;
+    private final int rankLimit;
+    //Only used by the listener methods, which the engine calls one at a time
+    private final MatchRanking ranking = new MatchRanking();
+    private final Map<Long, Match> liveMatches = new HashMap<>();
+    private long sequence;
+
+    public AlertEngine(List<AlertRule> rules, AlertFeed feed, Clock clock) {
+        this.rules = List.copyOf(rules);
+        this.feed = feed;
+        this.clock = clock;
+        this.rankLimit = this.rules.stream().mapToInt(AlertRule::getRankLimit).max().orElse(0);
+    }
+
+    public List<AlertRule> getRules() {
+        return rules;
+    }
+
+    @Override
+    public synchronized void onMatchStarted(long version, Match match) {
+        liveMatches.put(match.getId(), match);
+        ranking.put(match.getId(), match.getStartTime(), 0);
+        int rankAfter = ranking.rankOf(match.getId(), rankLimit);
+        for (AlertRule rule : rules) {
+            if (rule.test(0, 0, oneBased(rankAfter))) {
+                fire(version, rule, match, 0, 0);
+            }
+        }
+        evaluateShifted(version, rankLimit, rankAfter);
+    }
+
+    @Override
+    public synchronized void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+        int rankBefore = ranking.rankOf(match.getId(), rankLimit);
+        int homeScore = match.getHomeScore();
+        int awayScore = match.getAwayScore();
+        liveMatches.put(match.getId(), match);
+        ranking.put(match.getId(), match.getStartTime(), homeScore + awayScore);
+        int rankAfter = ranking.rankOf(match.getId(), rankLimit);
+        for (AlertRule rule : rules) {
+            if (!rule.test(previousHomeScore, previousAwayScore, oneBased(rankBefore))
+                    && rule.test(homeScore, awayScore, oneBased(rankAfter))) {
+                fire(version, rule, match, homeScore, awayScore);
+            }
+        }
+        evaluateShifted(version, rankBefore, rankAfter);
+    }
+
+    @Override
+    public synchronized void onMatchFinished(long version, Match match) {
+        int rankBefore = ranking.rankOf(match.getId(), rankLimit);
+        liveMatches.remove(match.getId());
+        ranking.remove(match.getId());
+        evaluateShifted(version, rankBefore, rankLimit);
+    }
+
+    @Override
+    public synchronized void onReset(long version, List<Match> finishedMatches) {
+        liveMatches.clear();
+        ranking.clear();
+    }
+
+    //Ranks are the zero based ones of the changed match, with rankLimit meaning below the deepest compared rank or
+    //off the board. The matches between them moved one rank the other way, and only their rank changed.
+    private void evaluateShifted(long version, int rankBefore, int rankAfter) {
+        if (rankBefore == rankAfter) {
+            return;
+        }
+        List<Long> top = ranking.top(rankLimit + 1);
+        //Moving up pushed the matches now at ranks (after, before] down, moving down pulled those at [before, after) up
+        int first = rankAfter < rankBefore ? rankAfter + 1 : rankBefore;
+        int last = Math.min(rankAfter < rankBefore ? rankBefore : rankAfter - 1, top.size() - 1);
+        int shift = rankAfter < rankBefore ? -1 : 1;
+        for (int rank = first; rank <= last; rank++) {
+            Match shifted = liveMatches.get(top.get(rank));
+            int homeScore = shifted.getHomeScore();
+            int awayScore = shifted.getAwayScore();
+            for (AlertRule rule : rules) {
+                if (!rule.test(homeScore, awayScore, oneBased(rank + shift)) && rule.test(homeScore, awayScore, oneBased(rank))) {
+                    fire(version, rule, shifted, homeScore, awayScore);
+                }
+            }
+        }
+    }
+
+    //1 based rank, or Integer.MAX_VALUE below the deepest rank any rule compares
+    private int oneBased(int rank) {
+        return rank < rankLimit ? rank + 1 : Integer.MAX_VALUE;
+    }
+
+    private void fire(long version, AlertRule rule, Match match, int homeScore, int awayScore) {
+        feed.add(new Alert(++sequence, version, rule.getName(), match.getId(), match.getHomeTeam(), match.getAwayTeam(),
+                homeScore, awayScore, clock.instant()));
+    }
+}
@@ -0,0 +1,58 @@
+package football.scoreboard.alert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The last {@code capacity} alerts in a ring buffer. Readers ask for the alerts after a sequence, and older alerts
+ * are overwritten. Listeners are told after each alert is added and must not block, as alerts are added while the
+ * engine delivers a change and the writes wait for it.
+ */
+public class AlertFeed {
+    private final Alert[] ring;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private long lastSequence;
+
+    public AlertFeed(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Alert feed capacity must be positive.");
+        }
+        this.ring = new Alert[capacity];
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    void add(Alert alert) {
+        synchronized (this) {
+            if (alert.sequence() != lastSequence + 1) {
+                throw new IllegalStateException("Alert feed expected sequence " + (lastSequence + 1) + " but got " + alert.sequence());
+            }
+            ring[(int) ((alert.sequence() - 1) % ring.length)] = alert;
+            lastSequence = alert.sequence();
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Up to {@code max} alerts with a sequence above {@code sequence}, oldest first. Alerts that were already
+     * overwritten are skipped.
+     */
+    public synchronized List<Alert> since(long sequence, int max) {
+        long first = Math.max(Math.max(sequence, 0) + 1, lastSequence - ring.length + 1);
+        long last = Math.min(lastSequence, first + Math.max(max, 0) - 1);
+        List<Alert> alerts = new ArrayList<>((int) Math.max(0, last - first + 1));
+        for (long s = first; s <= last; s++) {
+            alerts.add(ring[(int) ((s - 1) % ring.length)]);
+        }
+        return alerts;
+    }
+}
@@ -0,0 +1,216 @@
+package football.scoreboard.alert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An alert rule compiled once from a small expression language, e.g. {@code total >= 5},
+ * {@code away - home >= 2} or {@code rank <= 3 and total > 0}.
+ * <p>
+ * A rule is one or more conditions joined by {@code and}. A condition compares {@code rank} (1 for the leader of
+ * the summary), or a sum of {@code home}, {@code away}, {@code total} and whole numbers, with a whole number.
+ * Every sum is compiled to {@code a * home + b * away + c}, so evaluating a rule is a few multiplications per
+ * condition, with no parsing or lookups at run time.
+ */
+public final class AlertRule {
+    private static final Pattern TOKEN = Pattern.compile("\\s*(>=|<=|==|!=|>|<|\\+|-|\\d+|[a-z]+)\\s*");
+
+    private final String name;
+    private final String expression;
+    private final Condition[] conditions;
+    private final int rankLimit;
+
+    private enum Comparison {
+        GREATER_OR_EQUAL, LESS_OR_EQUAL, EQUAL, NOT_EQUAL, GREATER, LESS
+    }
+
+    //rank ? rank : homeFactor * home + awayFactor * away + constant, compared with threshold
+    private record Condition(boolean rank, int homeFactor, int awayFactor, int constant,
+                             Comparison comparison, int threshold) {
+
+        boolean test(int homeScore, int awayScore, int matchRank) {
+            long value = rank ? matchRank : (long) homeFactor * homeScore + (long) awayFactor * awayScore + constant;
+            return switch (comparison) {
+                case GREATER_OR_EQUAL -> value >= threshold;
+                case LESS_OR_EQUAL -> value <= threshold;
+                case EQUAL -> value == threshold;
+                case NOT_EQUAL -> value != threshold;
+                case GREATER -> value > threshold;
+                case LESS -> value < threshold;
+            };
+        }
+    }
+
+    private AlertRule(String name, String expression, Condition[] conditions) {
+        this.name = name;
+        this.expression = expression;
+        this.conditions = conditions;
+        int deepestRank = 0;
+        for (Condition condition : conditions) {
+            if (condition.rank()) {
+                deepestRank = Math.max(deepestRank, condition.threshold() + 1);
+            }
+        }
+        this.rankLimit = deepestRank;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Ranks beyond this limit can be passed as {@link Integer#MAX_VALUE} without changing the result, 0 if the rule
+     * does not use the rank.
+     */
+    public int getRankLimit() {
+        return rankLimit;
+    }
+
+    /**
+     * @param rank 1 based rank of the match in the summary
+     */
+    public boolean test(int homeScore, int awayScore, int rank) {
+        for (Condition condition : conditions) {
+            if (!condition.test(homeScore, awayScore, rank)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compiles rules written as {@code name: expression}, separated by semicolons.
+     */
+    public static List<AlertRule> compileAll(String definitions) {
+        List<AlertRule> rules = new ArrayList<>();
+        if (definitions == null) {
+            return rules;
+        }
+        for (String definition : definitions.split(";")) {
+            if (definition.isBlank()) {
+                continue;
+            }
+            int colon = definition.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Alert rule needs a name, expected 'name: expression' but got: " + definition.trim());
+            }
+            rules.add(compile(definition.substring(0, colon).trim(), definition.substring(colon + 1).trim()));
+        }
+        return rules;
+    }
+
+    public static AlertRule compile(String name, String expression) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Alert rule name cannot be empty: " + expression);
+        }
+        List<String> tokens = tokenize(name, expression);
+        List<Condition> conditions = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= tokens.size(); i++) {
+            if (i == tokens.size() || tokens.get(i).equals("and")) {
+                conditions.add(condition(name, tokens.subList(start, i)));
+                start = i + 1;
+            }
+        }
+        return new AlertRule(name, expression, conditions.toArray(new Condition[0]));
+    }
+
+    private static Condition condition(String name, List<String> tokens) {
+        if (tokens.size() < 3) {
+            throw invalid(name, "incomplete condition " + String.join(" ", tokens));
+        }
+        Comparison comparison = comparisonOf(tokens.get(tokens.size() - 2));
+        String thresholdToken = tokens.getLast();
+        if (comparison == null || !thresholdToken.chars().allMatch(Character::isDigit)) {
+            throw invalid(name, "a condition must end with a comparison and a whole number");
+        }
+        int threshold = Integer.parseInt(thresholdToken);
+        List<String> operand = tokens.subList(0, tokens.size() - 2);
+
+        if (operand.contains("rank")) {
+            if (operand.size() != 1) {
+                throw invalid(name, "rank can only be compared on its own");
+            }
+            return new Condition(true, 0, 0, 0, comparison, threshold);
+        }
+
+        int homeFactor = 0;
+        int awayFactor = 0;
+        int constant = 0;
+        int sign = 1;
+        boolean expectTerm = true;
+        for (String token : operand) {
+            if (expectTerm) {
+                switch (token) {
+                    case "home" -> homeFactor += sign;
+                    case "away" -> awayFactor += sign;
+                    case "total" -> {
+                        homeFactor += sign;
+                        awayFactor += sign;
+                    }
+                    default -> {
+                        if (!token.chars().allMatch(Character::isDigit)) {
+                            throw invalid(name, "unknown term " + token);
+                        }
+                        constant += sign * Integer.parseInt(token);
+                    }
+                }
+            } else if (token.equals("+") || token.equals("-")) {
+                sign = token.equals("+") ? 1 : -1;
+            } else {
+                throw invalid(name, "expected + or - but got " + token);
+            }
+            expectTerm = !expectTerm;
+        }
+        if (expectTerm) {
+            throw invalid(name, "expression ends with an operator");
+        }
+        return new Condition(false, homeFactor, awayFactor, constant, comparison, threshold);
+    }
+
+    private static List<String> tokenize(String name, String expression) {
+        List<String> tokens = new ArrayList<>();
+        String source = expression.toLowerCase(Locale.ROOT);
+        Matcher matcher = TOKEN.matcher(source);
+        int position = 0;
+        while (position < source.length()) {
+            if (!matcher.find(position) || matcher.start() != position) {
+                throw invalid(name, "unexpected character at " + position);
+            }
+            tokens.add(matcher.group(1));
+            position = matcher.end();
+        }
+        if (tokens.isEmpty()) {
+            throw invalid(name, "empty expression");
+        }
+        return tokens;
+    }
+
+    private static Comparison comparisonOf(String token) {
+        return switch (token) {
+            case ">=" -> Comparison.GREATER_OR_EQUAL;
+            case "<=" -> Comparison.LESS_OR_EQUAL;
+            case "==" -> Comparison.EQUAL;
+            case "!=" -> Comparison.NOT_EQUAL;
+            case ">" -> Comparison.GREATER;
+            case "<" -> Comparison.LESS;
+            default -> null;
+        };
+    }
+
+    private static IllegalArgumentException invalid(String name, String detail) {
+        return new IllegalArgumentException("Invalid alert rule " + name + ": " + detail);
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + expression;
+    }
+}
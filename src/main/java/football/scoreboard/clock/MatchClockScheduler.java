@@ -0,0 +1,228 @@
+package football.scoreboard.clock;
+
+import football.scoreboard.Match;
+import football.scoreboard.service.ScoreboardEngine;
+import football.scoreboard.service.ScoreboardListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the clock of every match on the board on one {@link TimingWheel}.
+ * <p>
+ * A match starts in {@link MatchPhase#FIRST_HALF} and moves through half-time and the second half. If extra time is
+ * configured and the score is level after the second half, extra time is played. Each match has at most one phase
+ * timer at a time, so the cost per match is O(1) however many matches are running. A match that is not finished
+ * within {@code autoFinishAfter} of reaching full time is finished by the scheduler, and a score correction after
+ * full time restarts that timeout.
+ * <p>
+ * The scheduler listens to the engine, so clocks start and stop with the matches. Call {@link #advance()} to move
+ * the clocks to the current time of the clock passed in; {@link #startTicking()} does so on a daemon thread.
+ */
+public class MatchClockScheduler implements ScoreboardListener, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MatchClockScheduler.class);
+
+    private final ScoreboardEngine engine;
+    private final Clock clock;
+    private final Settings settings;
+    private final TimingWheel wheel;
+    private final Map<Long, MatchClock> clocks = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    /**
+     * Phase lengths. An {@code extraTime} of zero means drawn matches end after the second half.
+     */
+    public record Settings(Duration half, Duration halfTime, Duration extraTime, Duration autoFinishAfter,
+                           Duration tick) {
+    }
+
+    //Guarded by its own monitor. Never call the engine while holding it: a write waits for the listeners to be called.
+    private static final class MatchClock {
+        private final long matchId;
+        private final String homeTeam;
+        private final String awayTeam;
+        private MatchPhase phase = MatchPhase.FIRST_HALF;
+        private long phaseStartMillis;
+        private boolean level = true;
+        private boolean extraTimePlayed;
+        private TimingWheel.Timer timer;
+
+        private MatchClock(Match match, long nowMillis) {
+            this.matchId = match.getId();
+            this.homeTeam = match.getHomeTeam();
+            this.awayTeam = match.getAwayTeam();
+            this.phaseStartMillis = nowMillis;
+        }
+    }
+
+    public MatchClockScheduler(ScoreboardEngine engine, Clock clock, Settings settings) {
+        this.engine = engine;
+        this.clock = clock;
+        this.settings = settings;
+        this.wheel = new TimingWheel(settings.tick().toMillis(), clock.millis());
+    }
+
+    public void advance() {
+        wheel.advanceTo(clock.millis());
+    }
+
+    public synchronized void startTicking() {
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "scoreboard-clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long tickMillis = settings.tick().toMillis();
+            ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    //An exception escaping a fixed rate task cancels all later runs, which would stop every clock for good
+    private void tick() {
+        try {
+            advance();
+        } catch (RuntimeException e) {
+            log.error("Advancing the match clocks failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Clocks of the given matches, in the same order. Matches without a clock are skipped.
+     */
+    public List<MatchClockView> clocksOf(List<Match> matches) {
+        long now = clock.millis();
+        List<MatchClockView> views = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            MatchClock matchClock = clocks.get(match.getId());
+            if (matchClock != null) {
+                synchronized (matchClock) {
+                    views.add(new MatchClockView(matchClock.matchId, matchClock.homeTeam, matchClock.awayTeam,
+                            matchClock.phase, minuteOf(matchClock, now)));
+                }
+            }
+        }
+        return views;
+    }
+
+    public int runningClocks() {
+        return clocks.size();
+    }
+
+    @Override
+    public void onMatchStarted(long version, Match match) {
+        MatchClock matchClock = new MatchClock(match, clock.millis());
+        clocks.put(matchClock.matchId, matchClock);
+        synchronized (matchClock) {
+            scheduleEndOfPhase(matchClock);
+        }
+    }
+
+    @Override
+    public void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+        MatchClock matchClock = clocks.get(match.getId());
+        if (matchClock == null) {
+            return;
+        }
+        synchronized (matchClock) {
+            matchClock.level = match.getHomeScore() == match.getAwayScore();
+            if (matchClock.phase == MatchPhase.FULL_TIME) {
+                //A late correction, give the editors the full timeout again
+                matchClock.phaseStartMillis = clock.millis();
+                scheduleEndOfPhase(matchClock);
+            }
+        }
+    }
+
+    @Override
+    public void onMatchFinished(long version, Match match) {
+        stop(clocks.remove(match.getId()));
+    }
+
+    @Override
+    public void onReset(long version, List<Match> finishedMatches) {
+        for (Long matchId : List.copyOf(clocks.keySet())) {
+            stop(clocks.remove(matchId));
+        }
+    }
+
+    private void stop(MatchClock matchClock) {
+        if (matchClock != null) {
+            synchronized (matchClock) {
+                wheel.cancel(matchClock.timer);
+                matchClock.timer = null;
+            }
+        }
+    }
+
+    private void scheduleEndOfPhase(MatchClock matchClock) {
+        wheel.cancel(matchClock.timer);
+        long deadline = matchClock.phaseStartMillis + lengthOf(matchClock.phase).toMillis();
+        matchClock.timer = wheel.schedule(deadline, () -> endOfPhase(matchClock));
+    }
+
+    private void endOfPhase(MatchClock matchClock) {
+        synchronized (matchClock) {
+            if (clocks.get(matchClock.matchId) != matchClock) {
+                return;
+            }
+            MatchPhase next = switch (matchClock.phase) {
+                case FIRST_HALF -> MatchPhase.HALF_TIME;
+                case HALF_TIME -> MatchPhase.SECOND_HALF;
+                case SECOND_HALF -> matchClock.level && !settings.extraTime().isZero() ? MatchPhase.EXTRA_TIME : MatchPhase.FULL_TIME;
+                case EXTRA_TIME -> MatchPhase.FULL_TIME;
+                case FULL_TIME -> null;
+            };
+            if (next != null) {
+                //The next phase starts when the previous one was due, not when the tick noticed it
+                matchClock.phaseStartMillis += lengthOf(matchClock.phase).toMillis();
+                matchClock.phase = next;
+                matchClock.extraTimePlayed |= next == MatchPhase.EXTRA_TIME;
+                scheduleEndOfPhase(matchClock);
+                return;
+            }
+            matchClock.timer = null;
+        }
+        //Stale after full time, outside the clock's monitor
+        engine.finishMatchById(matchClock.matchId);
+    }
+
+    private Duration lengthOf(MatchPhase phase) {
+        return switch (phase) {
+            case FIRST_HALF, SECOND_HALF -> settings.half();
+            case HALF_TIME -> settings.halfTime();
+            case EXTRA_TIME -> settings.extraTime();
+            case FULL_TIME -> settings.autoFinishAfter();
+        };
+    }
+
+    private int minuteOf(MatchClock matchClock, long now) {
+        int half = (int) settings.half().toMinutes();
+        int elapsed = (int) Math.min(Duration.ofMillis(Math.max(0, now - matchClock.phaseStartMillis)).toMinutes(),
+                lengthOf(matchClock.phase).toMinutes());
+        return switch (matchClock.phase) {
+            case FIRST_HALF -> Math.min(elapsed + 1, half);
+            case HALF_TIME -> half;
+            case SECOND_HALF -> half + Math.min(elapsed + 1, half);
+            case EXTRA_TIME -> 2 * half + Math.min(elapsed + 1, (int) settings.extraTime().toMinutes());
+            case FULL_TIME -> 2 * half + (matchClock.extraTimePlayed ? (int) settings.extraTime().toMinutes() : 0);
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package football.scoreboard.clock;
+
+/**
+ * Clock of one match as returned by the REST API.
+ */
+public record MatchClockView(long matchId, String homeTeam, String awayTeam, MatchPhase phase, int minute) {
+}
@@ -0,0 +1,9 @@
+package football.scoreboard.clock;
+
+public enum MatchPhase {
+    FIRST_HALF,
+    HALF_TIME,
+    SECOND_HALF,
+    EXTRA_TIME,
+    FULL_TIME
+}
@@ -0,0 +1,169 @@
+package football.scoreboard.clock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: timers for any number of matches without a thread or a heap entry per timer.
+ * <p>
+ * Time is split into ticks of {@code tickMillis}. Level 0 has one bucket per tick for the next {@value #WHEEL_SIZE}
+ * ticks, and every higher level has buckets {@value #WHEEL_SIZE} times wider. Scheduling and cancelling are O(1):
+ * a timer is linked into the bucket of its level. When the time reaches a higher level bucket, its timers are
+ * cascaded into lower levels, so each timer moves at most once per level. Timers further away than the top level
+ * wait in its last bucket and are re-placed when that bucket is cascaded.
+ * <p>
+ * The wheel has no thread of its own. Whoever owns it calls {@link #advanceTo(long)} with the current time, either
+ * from a ticker thread or, in tests, from a simulated clock. Expired tasks run on the calling thread, after the
+ * wheel's lock is released, so they may schedule or cancel timers themselves. A task that throws is logged, and the
+ * other expired tasks still run.
+ */
+public class TimingWheel {
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    //buckets[level][slot] is the sentinel of a circular doubly linked list of timers
+    private final Timer[][] buckets = new Timer[LEVELS][WHEEL_SIZE];
+    private long currentTick;
+    private int pending;
+
+    /**
+     * Handle of a scheduled task, used to cancel it.
+     */
+    public static final class Timer {
+        private final Runnable task;
+        private final long deadlineTick;
+        private Timer previous;
+        private Timer next;
+
+        private Timer(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick must be at least one millisecond.");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (Timer[] level : buckets) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                Timer sentinel = new Timer(null, 0);
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+                level[slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Runs the task on the first {@link #advanceTo} at or after the deadline. Deadlines in the past run on the next
+     * tick.
+     */
+    public synchronized Timer schedule(long deadlineMillis, Runnable task) {
+        //Rounded up, so that a task never runs before its deadline
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Timer timer = new Timer(task, deadlineTick);
+        place(timer);
+        pending++;
+        return timer;
+    }
+
+    /**
+     * @return false if the timer already ran or was cancelled
+     */
+    public synchronized boolean cancel(Timer timer) {
+        if (timer == null || timer.next == null) {
+            return false;
+        }
+        unlink(timer);
+        pending--;
+        return true;
+    }
+
+    public synchronized int pending() {
+        return pending;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and runs every task whose deadline has passed, in deadline order.
+     */
+    public void advanceTo(long nowMillis) {
+        List<Timer> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                for (int level = 1; level < LEVELS; level++) {
+                    //A higher level bucket is due when all lower level digits of the tick are zero
+                    if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                        break;
+                    }
+                    cascade(buckets[level][(int) (currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK]);
+                }
+                Timer sentinel = buckets[0][(int) currentTick & WHEEL_MASK];
+                while (sentinel.next != sentinel) {
+                    Timer timer = sentinel.next;
+                    unlink(timer);
+                    pending--;
+                    expired.add(timer);
+                }
+            }
+        }
+        //The expired timers are already unlinked, a task that throws must not drop the ones after it
+        for (Timer timer : expired) {
+            try {
+                timer.task.run();
+            } catch (RuntimeException e) {
+                log.error("Timer task failed", e);
+            }
+        }
+    }
+
+    private void cascade(Timer sentinel) {
+        //Detach the whole bucket first, a timer may be placed back into the same bucket
+        Timer timer = sentinel.next;
+        sentinel.next = sentinel;
+        sentinel.previous = sentinel;
+        while (timer != sentinel) {
+            Timer next = timer.next;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer timer) {
+        long delta = timer.deadlineTick - currentTick;
+        long slotTick = timer.deadlineTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        long topSpan = 1L << (WHEEL_BITS * LEVELS);
+        if (delta >= topSpan) {
+            //Too far for the wheel, wait in the last top level bucket and be re-placed from there
+            slotTick = currentTick + topSpan - 1;
+        }
+        Timer sentinel = buckets[level][(int) (slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK];
+        timer.previous = sentinel.previous;
+        timer.next = sentinel;
+        sentinel.previous.next = timer;
+        sentinel.previous = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+    }
+}
@@ -0,0 +1,323 @@
+package football.scoreboard.history;
+
+import football.scoreboard.Match;
+import football.scoreboard.SummaryOrder;
+import football.scoreboard.service.ScoreboardListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static football.scoreboard.service.ScoreboardEngine.VERSION_IS_NOT_AVAILABLE;
+
+/**
+ * Bounded history of board changes, used to rebuild the board as it was at an earlier version or moment.
+ * <p>
+ * Every change is kept as a delta in a fixed-size ring of primitive columns, so recording a change allocates nothing
+ * but the ring slots themselves. Every {@code checkpointInterval} deltas the whole board is copied into a
+ * checkpoint. A past board is rebuilt from the nearest checkpoint at or before the requested version plus at most
+ * {@code checkpointInterval - 1} deltas, so the cost of a query does not grow with the length of the history. Once a
+ * delta falls out of the ring, versions that would need it are no longer available.
+ */
+public class BoardHistory implements ScoreboardListener {
+    private static final byte STARTED = 0;
+    private static final byte UPDATED = 1;
+    private static final byte FINISHED = 2;
+    private static final byte RESET = 3;
+
+    private final Clock clock;
+    private final int capacity;
+    private final int checkpointInterval;
+
+    //One column per delta field, indexed by (version - baseVersion - 1) % capacity
+    private final byte[] types;
+    private final long[] timestamps;
+    private final long[] matchIds;
+    private final int[] homeScores;
+    private final int[] awayScores;
+    //Only set for STARTED deltas
+    private final String[] homeTeams;
+    private final String[] awayTeams;
+    private final LocalDateTime[] startTimes;
+
+    //Checkpoints ordered by version, the oldest at checkpointHead
+    private final Checkpoint[] checkpoints;
+    private int checkpointHead;
+    private int checkpointCount;
+
+    //The board as of lastVersion, in start order
+    private final Map<Long, MatchState> board = new LinkedHashMap<>();
+    private long baseVersion = -1;
+    private long lastVersion = -1;
+    private long lastTimestamp;
+
+    private record MatchState(long id, String homeTeam, String awayTeam, LocalDateTime startTime,
+                              int homeScore, int awayScore) {
+    }
+
+    private record Checkpoint(long version, MatchState[] board) {
+    }
+
+    public BoardHistory(int capacity, int checkpointInterval, Clock clock) {
+        if (capacity < 1 || checkpointInterval < 1 || checkpointInterval > capacity) {
+            throw new IllegalArgumentException("History capacity and checkpoint interval must be positive, and the interval at most the capacity.");
+        }
+        this.clock = clock;
+        this.capacity = capacity;
+        this.checkpointInterval = checkpointInterval;
+        this.types = new byte[capacity];
+        this.timestamps = new long[capacity];
+        this.matchIds = new long[capacity];
+        this.homeScores = new int[capacity];
+        this.awayScores = new int[capacity];
+        this.homeTeams = new String[capacity];
+        this.awayTeams = new String[capacity];
+        this.startTimes = new LocalDateTime[capacity];
+        //Enough checkpoints to cover every delta still in the ring, plus the one the oldest delta builds on
+        this.checkpoints = new Checkpoint[capacity / checkpointInterval + 2];
+    }
+
+    /**
+     * Starts recording from the given version and board. Called by the engine before the first change is published.
+     */
+    public synchronized void begin(long version, List<Match> currentBoard) {
+        board.clear();
+        for (Match match : currentBoard) {
+            board.put(match.getId(), stateOf(match, match.getHomeScore(), match.getAwayScore()));
+        }
+        baseVersion = version;
+        lastVersion = version;
+        lastTimestamp = clock.millis();
+        checkpointHead = 0;
+        checkpointCount = 0;
+        addCheckpoint(version);
+    }
+
+    @Override
+    public synchronized void onMatchStarted(long version, Match match) {
+        int position = append(version, STARTED, match.getId(), 0, 0);
+        homeTeams[position] = match.getHomeTeam();
+        awayTeams[position] = match.getAwayTeam();
+        startTimes[position] = match.getStartTime();
+        board.put(match.getId(), stateOf(match, 0, 0));
+        checkpointIfDue(version);
+    }
+
+    @Override
+    public synchronized void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+        int homeScore = match.getHomeScore();
+        int awayScore = match.getAwayScore();
+        append(version, UPDATED, match.getId(), homeScore, awayScore);
+        board.computeIfPresent(match.getId(), (id, state) -> new MatchState(id, state.homeTeam(), state.awayTeam(),
+                state.startTime(), homeScore, awayScore));
+        checkpointIfDue(version);
+    }
+
+    @Override
+    public synchronized void onMatchFinished(long version, Match match) {
+        append(version, FINISHED, match.getId(), 0, 0);
+        board.remove(match.getId());
+        checkpointIfDue(version);
+    }
+
+    @Override
+    public synchronized void onReset(long version, List<Match> finishedMatches) {
+        append(version, RESET, 0, 0, 0);
+        board.clear();
+        checkpointIfDue(version);
+    }
+
+    public synchronized long getLatestVersion() {
+        return lastVersion;
+    }
+
+    /**
+     * Oldest version that can still be rebuilt.
+     */
+    public synchronized long getOldestVersion() {
+        if (checkpointCount == 0) {
+            return -1;
+        }
+        long oldestDelta = oldestDeltaVersion();
+        //A version is available when a checkpoint at or before it is followed by retained deltas up to it
+        for (int i = 0; i < checkpointCount; i++) {
+            long checkpointVersion = checkpointAt(i).version();
+            if (checkpointVersion >= oldestDelta - 1) {
+                return checkpointVersion;
+            }
+        }
+        return lastVersion;
+    }
+
+    /**
+     * Board at the given version, sorted like the summary.
+     *
+     * @throws IllegalArgumentException if the version is in the future or no longer in the history
+     */
+    public List<Match> sortedMatchesAt(long version) {
+        return SummaryOrder.sort(boardAt(version));
+    }
+
+    /**
+     * Board as it was at the given moment, sorted like the summary.
+     *
+     * @throws IllegalArgumentException if the moment is before the oldest change still in the history
+     */
+    public List<Match> sortedMatchesAt(Instant moment) {
+        return SummaryOrder.sort(boardAt(versionAt(moment)));
+    }
+
+    /**
+     * Latest version whose change happened at or before the given moment.
+     */
+    public synchronized long versionAt(Instant moment) {
+        if (checkpointCount == 0) {
+            throw new IllegalArgumentException(VERSION_IS_NOT_AVAILABLE);
+        }
+        long millis = moment.toEpochMilli();
+        long low = oldestDeltaVersion();
+        long high = lastVersion;
+        if (low > high || millis < timestamps[positionOf(low)]) {
+            //Before the oldest retained delta the board is only known if nothing has been evicted yet
+            if (low == baseVersion + 1) {
+                return baseVersion;
+            }
+            throw new IllegalArgumentException(VERSION_IS_NOT_AVAILABLE);
+        }
+        //Timestamps never decrease, find the last delta at or before the moment
+        while (low < high) {
+            long middle = (low + high + 1) >>> 1;
+            if (timestamps[positionOf(middle)] <= millis) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private synchronized List<Match> boardAt(long version) {
+        if (checkpointCount == 0 || version > lastVersion || version < baseVersion) {
+            throw new IllegalArgumentException(VERSION_IS_NOT_AVAILABLE);
+        }
+        Checkpoint checkpoint = nearestCheckpoint(version);
+        if (checkpoint == null || (checkpoint.version() < version && checkpoint.version() + 1 < oldestDeltaVersion())) {
+            throw new IllegalArgumentException(VERSION_IS_NOT_AVAILABLE);
+        }
+
+        Map<Long, MatchState> rebuilt = new LinkedHashMap<>();
+        for (MatchState state : checkpoint.board()) {
+            rebuilt.put(state.id(), state);
+        }
+        for (long v = checkpoint.version() + 1; v <= version; v++) {
+            apply(rebuilt, positionOf(v));
+        }
+
+        List<Match> result = new ArrayList<>(rebuilt.size());
+        for (MatchState state : rebuilt.values()) {
+            result.add(new HistoricalMatch(state));
+        }
+        return result;
+    }
+
+    private void apply(Map<Long, MatchState> target, int position) {
+        long id = matchIds[position];
+        switch (types[position]) {
+            case STARTED -> target.put(id, new MatchState(id, homeTeams[position], awayTeams[position],
+                    startTimes[position], 0, 0));
+            case UPDATED -> target.computeIfPresent(id, (key, state) -> new MatchState(key, state.homeTeam(),
+                    state.awayTeam(), state.startTime(), homeScores[position], awayScores[position]));
+            case FINISHED -> target.remove(id);
+            default -> target.clear();
+        }
+    }
+
+    private int append(long version, byte type, long matchId, int homeScore, int awayScore) {
+        if (version != lastVersion + 1) {
+            throw new IllegalStateException("History expected version " + (lastVersion + 1) + " but got " + version);
+        }
+        int position = positionOf(version);
+        //Clamped so that timestamps never decrease, even if the wall clock steps back
+        lastTimestamp = Math.max(lastTimestamp, clock.millis());
+        types[position] = type;
+        timestamps[position] = lastTimestamp;
+        matchIds[position] = matchId;
+        homeScores[position] = homeScore;
+        awayScores[position] = awayScore;
+        homeTeams[position] = null;
+        awayTeams[position] = null;
+        startTimes[position] = null;
+        lastVersion = version;
+        return position;
+    }
+
+    private void checkpointIfDue(long version) {
+        if ((version - baseVersion) % checkpointInterval == 0) {
+            addCheckpoint(version);
+        }
+    }
+
+    private void addCheckpoint(long version) {
+        Checkpoint checkpoint = new Checkpoint(version, board.values().toArray(new MatchState[0]));
+        if (checkpointCount == checkpoints.length) {
+            checkpoints[checkpointHead] = checkpoint;
+            checkpointHead = (checkpointHead + 1) % checkpoints.length;
+        } else {
+            checkpoints[(checkpointHead + checkpointCount) % checkpoints.length] = checkpoint;
+            checkpointCount++;
+        }
+    }
+
+    private Checkpoint nearestCheckpoint(long version) {
+        for (int i = checkpointCount - 1; i >= 0; i--) {
+            Checkpoint checkpoint = checkpointAt(i);
+            if (checkpoint.version() <= version) {
+                return checkpoint;
+            }
+        }
+        return null;
+    }
+
+    private Checkpoint checkpointAt(int i) {
+        return checkpoints[(checkpointHead + i) % checkpoints.length];
+    }
+
+    private long oldestDeltaVersion() {
+        return Math.max(baseVersion + 1, lastVersion - capacity + 1);
+    }
+
+    private int positionOf(long version) {
+        return (int) ((version - baseVersion - 1) % capacity);
+    }
+
+    private static MatchState stateOf(Match match, int homeScore, int awayScore) {
+        return new MatchState(match.getId(), match.getHomeTeam(), match.getAwayTeam(), match.getStartTime(),
+                homeScore, awayScore);
+    }
+
+    /**
+     * Read-only match rebuilt from the history.
+     */
+    private static final class HistoricalMatch extends Match {
+        private final long packedScore;
+
+        private HistoricalMatch(MatchState state) {
+            super(state.id(), state.homeTeam(), state.awayTeam(), state.startTime());
+            this.packedScore = pack(state.homeScore(), state.awayScore());
+        }
+
+        @Override
+        protected long getPackedScore() {
+            return packedScore;
+        }
+
+        @Override
+        protected void setPackedScore(long packedScore) {
+            throw new UnsupportedOperationException("Matches from the history cannot be updated.");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package football.scoreboard.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Live matches in summary order, for listeners that need the rank of the match a change touched. A rank is only
+ * searched for down to a limit, so it costs O(limit) however large the board is.
+ * <p>
+ * Not thread-safe: listeners update it from their event methods, which the engine calls one at a time.
+ */
+public class MatchRanking {
+    private final NavigableSet<Key> ranking = new TreeSet<>(Key.SUMMARY_ORDER);
+    private final Map<Long, Key> keys = new HashMap<>();
+
+    private record Key(int totalScore, LocalDateTime startTime, long matchId) {
+        //The summary order, with the id to tell apart matches started at the same instant
+        static final Comparator<Key> SUMMARY_ORDER = Comparator.comparingInt(Key::totalScore).reversed()
+                .thenComparing(Comparator.comparing(Key::startTime).reversed())
+                .thenComparing(Comparator.comparingLong(Key::matchId).reversed());
+    }
+
+    public void put(long matchId, LocalDateTime startTime, int totalScore) {
+        Key key = new Key(totalScore, startTime, matchId);
+        Key previous = keys.put(matchId, key);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        ranking.add(key);
+    }
+
+    public void remove(long matchId) {
+        Key key = keys.remove(matchId);
+        if (key != null) {
+            ranking.remove(key);
+        }
+    }
+
+    public void clear() {
+        ranking.clear();
+        keys.clear();
+    }
+
+    /**
+     * Zero based rank of the match, or {@code limit} if it is not ranked within the first {@code limit} matches.
+     */
+    public int rankOf(long matchId, int limit) {
+        Key key = keys.get(matchId);
+        if (key == null) {
+            return limit;
+        }
+        int rank = 0;
+        for (Key ranked : ranking) {
+            if (rank >= limit || ranked == key) {
+                break;
+            }
+            rank++;
+        }
+        return rank;
+    }
+
+    /**
+     * Ids of the first {@code limit} matches in summary order, fewer when there are not as many live matches.
+     */
+    public List<Long> top(int limit) {
+        List<Long> top = new ArrayList<>(Math.min(limit, keys.size()));
+        for (Key ranked : ranking) {
+            if (top.size() >= limit) {
+                break;
+            }
+            top.add(ranked.matchId());
+        }
+        return top;
+    }
+}
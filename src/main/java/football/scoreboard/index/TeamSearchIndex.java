@@ -0,0 +1,106 @@
+package football.scoreboard.index;
+
+import football.scoreboard.Match;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over the team names of live matches.
+ * <p>
+ * Names are normalized (case, diacritics and punctuation are ignored), and every word of a name is indexed
+ * as its own prefix key, so "ivoire", "cote d" and "Côte d'Ivoire" all find the same match. A lookup is a
+ * range scan on a skip list, so it costs O(log n + k) for k hits instead of a scan over the whole board.
+ * <p>
+ * Only {@link Match#getId() match ids} are kept, not the matches themselves, so a store that keeps its matches
+ * outside the heap does not get a heap copy of every match through the index. Callers look the ids up in the store.
+ */
+public class TeamSearchIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    //Letters that NFD does not decompose into a base letter and a combining mark.
+    private static final Map<String, String> LIGATURES = Map.of(
+            "ø", "o", "ß", "ss", "đ", "d", "ł", "l", "æ", "ae", "œ", "oe", "ı", "i", "þ", "th");
+
+    //ConcurrentSkipListMap keeps the keys sorted, so all names starting with a prefix form one contiguous range.
+    private final ConcurrentSkipListMap<String, Set<Long>> index = new ConcurrentSkipListMap<>();
+
+    public void add(Match match) {
+        for (String key : keysOf(match)) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(match.getId());
+        }
+    }
+
+    public void remove(Match match) {
+        for (String key : keysOf(match)) {
+            index.computeIfPresent(key, (k, matchIds) -> {
+                matchIds.remove(match.getId());
+                return matchIds.isEmpty() ? null : matchIds;
+            });
+        }
+    }
+
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * Returns the ids of the live matches in which a team name, or one of its words, starts with the given query,
+     * in ascending order. Ids are handed out as matches start, so that is also start order.
+     */
+    public List<Long> find(String query) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        ConcurrentNavigableMap<String, Set<Long>> range = index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        Set<Long> hits = new TreeSet<>();
+        range.values().forEach(hits::addAll);
+        return new ArrayList<>(hits);
+    }
+
+    /**
+     * Folds a team name to lower case ASCII-like words separated by single spaces, e.g. "Côte d'Ivoire"
+     * becomes "cote d ivoire".
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, String> ligature : LIGATURES.entrySet()) {
+            folded = folded.replace(ligature.getKey(), ligature.getValue());
+        }
+        return NON_ALPHANUMERIC.matcher(folded).replaceAll(" ").trim();
+    }
+
+    private static Set<String> keysOf(Match match) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordSuffixes(normalize(match.getHomeTeam()), keys);
+        addWordSuffixes(normalize(match.getAwayTeam()), keys);
+        return keys;
+    }
+
+    private static void addWordSuffixes(String name, Set<String> keys) {
+        //"cote d ivoire" is indexed as "cote d ivoire", "d ivoire" and "ivoire".
+        if (name.isEmpty()) {
+            return;
+        }
+        keys.add(name);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            keys.add(name.substring(i + 1));
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package football.scoreboard.service;
+
+import football.scoreboard.Match;
+import football.scoreboard.SummaryOrder;
+import football.scoreboard.history.BoardHistory;
+import football.scoreboard.index.TeamSearchIndex;
+import football.scoreboard.store.MatchStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Validation, storage, team index and summary logic shared by all engines.
+ * <p>
+ * Reads are lock-free on top of the {@link MatchStore}, except team search, which looks every hit up by id under
+ * the stripe lock of its match. The {@code do*} methods perform the writes without any
+ * synchronization, and each subclass calls them under its own concurrency policy: structural writes (start, finish,
+ * reset) must never run concurrently with each other.
+ * <p>
+ * Every write that changes the board increments the version. A score update is applied and gets its version under
+ * the stripe lock of its match, so updates of one match reach the listeners in the order they were applied, while
+ * updates of different matches do not contend. Structural writes, and adding a {@link ScoreboardListener}, hold every
+ * stripe, so a listener can be added while updates run. The listeners are called by a {@link ChangePublisher} in
+ * version order, outside the stripes, and a write returns once its change was delivered; without listeners nothing is
+ * published. A listener that throws is logged and skipped for that change only: the change stays applied, the caller
+ * does not see the exception, and the other listeners still get the change.
+ */
+public abstract class AbstractScoreboardEngine implements ScoreboardEngine {
+    private static final Logger log = LoggerFactory.getLogger(AbstractScoreboardEngine.class);
+    //Match ids are sequential, so the matches on a board spread evenly over the stripes
+    private static final int STRIPES = 64;
+    //Changes claimed but not delivered yet, at most one per waiting writer
+    private static final int PENDING_CHANGES = 1024;
+
+    protected final MatchStore matches;
+    private final TeamSearchIndex teamIndex = new TeamSearchIndex();
+    private final AtomicLong version = new AtomicLong();
+    private final List<ScoreboardListener> listeners = new CopyOnWriteArrayList<>();
+    private final Lock[] stripes = new Lock[STRIPES];
+    private final ChangePublisher publisher = new ChangePublisher(PENDING_CHANGES, change -> publish(change.version(), change.event()));
+    private volatile BoardHistory history;
+
+    protected AbstractScoreboardEngine(MatchStore matches) {
+        this.matches = matches;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public List<Match> getMatches() {
+        return matches.snapshot();
+    }
+
+    @Override
+    public List<Match> findMatchesByTeam(String team) {
+        if (!StringUtils.hasText(team)) {
+            throw new IllegalArgumentException(CANNOT_BE_NULL_OR_EMPTY);
+        }
+        List<Match> found = new ArrayList<>();
+        for (long matchId : teamIndex.find(team)) {
+            Match match = findById(matchId);
+            if (match != null) {
+                found.add(match);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Match getMatch(int index) {
+        try {
+            return matches.get(index);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IndexOutOfBoundsException(MATCH_INDEX_IS_OUT_OF_RANGE);
+        }
+    }
+
+    protected void doStartMatch(String homeTeam, String awayTeam) {
+        if (!StringUtils.hasText(homeTeam) || !StringUtils.hasText(awayTeam)) {
+            throw new IllegalArgumentException(CANNOT_BE_NULL_OR_EMPTY);
+        }
+
+        if (isPlaying(homeTeam, awayTeam)) {
+            throw new IllegalArgumentException(ALREADY_EXISTS);
+        }
+
+        long published;
+        lockAll();
+        try {
+            Match match = matches.add(homeTeam, awayTeam);
+            teamIndex.add(match);
+            Match started = new ChangedMatch(match, 0, 0);
+            published = claim((listener, current) -> listener.onMatchStarted(current, started));
+        } finally {
+            unlockAll();
+        }
+        publisher.awaitDelivered(published);
+    }
+
+    protected void doUpdateScore(int matchIndex, int homeScore, int awayScore) {
+        validateScoreUpdate(matchIndex, homeScore, awayScore);
+        //A concurrent finishMatch may remove the match between validation and update.
+        try {
+            Match match = matches.get(matchIndex);
+            long published;
+            while (true) {
+                Lock stripe = stripeOf(match.getId());
+                stripe.lock();
+                try {
+                    //Structural writes hold every stripe, so the board cannot shift while this one is held
+                    Match current = matches.get(matchIndex);
+                    if (current.getId() == match.getId() && listeners.isEmpty()) {
+                        //Listeners are only added with every stripe held, so an update that saw none under its stripe
+                        //is counted before the new listener settles the versions, and never needs to be offered
+                        current.updateScore(homeScore, awayScore);
+                        version.incrementAndGet();
+                        published = 0;
+                        break;
+                    }
+                    if (current.getId() == match.getId()) {
+                        //No other write of this match can run under its stripe, so both previous scores belong to the same update
+                        int previousHomeScore = current.getHomeScore();
+                        int previousAwayScore = current.getAwayScore();
+                        current.updateScore(homeScore, awayScore);
+                        Match updated = new ChangedMatch(current, homeScore, awayScore);
+                        published = claim((listener, version) ->
+                                listener.onScoreUpdated(version, updated, previousHomeScore, previousAwayScore));
+                        break;
+                    }
+                    //A finish moved another match to the index before the stripe was taken
+                    match = current;
+                } finally {
+                    stripe.unlock();
+                }
+            }
+            publisher.awaitDelivered(published);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IndexOutOfBoundsException(MATCH_INDEX_IS_OUT_OF_RANGE);
+        }
+    }
+
+    protected boolean doUpdateScoreById(long matchId, int homeScore, int awayScore) {
+        if (homeScore < 0 || awayScore < 0) {
+            throw new IllegalArgumentException(CANNOT_BE_NEGATIVE);
+        }
+        long published;
+        //Structural writes hold every stripe, so the match cannot move or be finished between lookup and update
+        Lock stripe = stripeOf(matchId);
+        stripe.lock();
+        try {
+            int index = matches.indexOf(matchId);
+            if (index < 0) {
+                return false;
+            }
+            Match current = matches.get(index);
+            int previousHomeScore = current.getHomeScore();
+            int previousAwayScore = current.getAwayScore();
+            current.updateScore(homeScore, awayScore);
+            Match updated = new ChangedMatch(current, homeScore, awayScore);
+            published = claim((listener, version) ->
+                    listener.onScoreUpdated(version, updated, previousHomeScore, previousAwayScore));
+        } finally {
+            stripe.unlock();
+        }
+        publisher.awaitDelivered(published);
+        return true;
+    }
+
+    @Override
+    public void validateScoreUpdate(int matchIndex, int homeScore, int awayScore) {
+        validateMatchIndex(matchIndex);
+
+        if (homeScore < 0 || awayScore < 0) {
+            throw new IllegalArgumentException(CANNOT_BE_NEGATIVE);
+        }
+    }
+
+    protected void doFinishMatch(int index) {
+        validateMatchIndex(index);
+        long published;
+        lockAll();
+        try {
+            published = finished(matches.remove(index));
+        } finally {
+            unlockAll();
+        }
+        publisher.awaitDelivered(published);
+    }
+
+    protected boolean doFinishMatchById(long matchId) {
+        long published;
+        //Looked up and removed in one store call, so a finish by index cannot shift the board in between
+        lockAll();
+        try {
+            Match match = matches.removeById(matchId);
+            if (match == null) {
+                return false;
+            }
+            published = finished(match);
+        } finally {
+            unlockAll();
+        }
+        publisher.awaitDelivered(published);
+        return true;
+    }
+
+    //Called with every stripe held, right after the match was removed from the store
+    private long finished(Match match) {
+        teamIndex.remove(match);
+        Match finishedMatch = new ChangedMatch(match, match.getHomeScore(), match.getAwayScore());
+        return claim((listener, current) -> listener.onMatchFinished(current, finishedMatch));
+    }
+
+    protected void doReset() {
+        long published;
+        lockAll();
+        try {
+            List<Match> finishedMatches = listeners.isEmpty() ? List.of() : matches.snapshot();
+            matches.clear();
+            teamIndex.clear();
+            published = claim((listener, current) -> listener.onReset(current, finishedMatches));
+        } finally {
+            unlockAll();
+        }
+        publisher.awaitDelivered(published);
+    }
+
+    /**
+     * Gives an applied change the next version and hands it to the publisher. Called with the stripe of the changed
+     * match or every stripe held, so the version order matches the order of the changes of each match.
+     *
+     * @return the version to wait for once the stripes are released, 0 when there is no listener to deliver to
+     */
+    private long claim(ChangePublisher.Event event) {
+        long current = version.incrementAndGet();
+        if (listeners.isEmpty()) {
+            return 0;
+        }
+        publisher.offer(current, event);
+        return current;
+    }
+
+    //Called by the publisher, one change at a time. The change is already applied, so a failing listener must not
+    //keep it from the others or fail the caller.
+    private void publish(long version, ChangePublisher.Event event) {
+        for (ScoreboardListener listener : listeners) {
+            try {
+                event.deliver(listener, version);
+            } catch (RuntimeException e) {
+                log.error("Scoreboard listener {} failed at version {}", listener.getClass().getSimpleName(), version, e);
+            }
+        }
+    }
+
+    private boolean isPlaying(String homeTeam, String awayTeam) {
+        if (TeamSearchIndex.normalize(homeTeam).isEmpty() || TeamSearchIndex.normalize(awayTeam).isEmpty()) {
+            //Names without letters or digits are not in the team index
+            return matches.snapshot().stream().anyMatch(match -> match.getHomeTeam().equals(homeTeam) || match.getAwayTeam().equals(awayTeam));
+        }
+        //A name is indexed as a whole too, so searching for it finds every match it plays in, without decoding the whole board
+        return Stream.concat(teamIndex.find(homeTeam).stream(), teamIndex.find(awayTeam).stream())
+                .map(this::findById)
+                .anyMatch(match -> match != null && (match.getHomeTeam().equals(homeTeam) || match.getAwayTeam().equals(awayTeam)));
+    }
+
+    private Match findById(long matchId) {
+        //Structural writes hold every stripe, so the index found is still the one of the match when it is read
+        Lock stripe = stripeOf(matchId);
+        stripe.lock();
+        try {
+            int index = matches.indexOf(matchId);
+            return index < 0 ? null : matches.get(index);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private Lock stripeOf(long matchId) {
+        return stripes[(int) (matchId & (STRIPES - 1))];
+    }
+
+    private void lockAll() {
+        for (Lock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    //Called with every stripe held, so no change can be claimed meanwhile. Afterwards every claimed change is
+    //delivered, and a listener registered now gets exactly the changes after the current version.
+    private void settleChanges() {
+        if (listeners.isEmpty()) {
+            //Changes made without listeners were never offered to the publisher
+            publisher.skipTo(version.get());
+        } else {
+            publisher.awaitDelivered(version.get());
+        }
+    }
+
+    private void validateMatchIndex(int index) {
+        if (index < 0 || index >= matches.size()) {
+            throw new IndexOutOfBoundsException(MATCH_INDEX_IS_OUT_OF_RANGE);
+        }
+    }
+
+    @Override
+    public List<String> getFormatedSortedSummary() {
+        return SummaryOrder.format(getSortedMatches());
+    }
+
+    @Override
+    public List<Match> getSortedMatches() {
+        return SummaryOrder.sort(matches.snapshot());
+    }
+
+    @Override
+    public List<Match> getSortedMatches(long asOfVersion) {
+        return requireHistory().sortedMatchesAt(asOfVersion);
+    }
+
+    @Override
+    public List<Match> getSortedMatches(Instant asOf) {
+        return requireHistory().sortedMatchesAt(asOf);
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public void addListener(ScoreboardListener listener) {
+        lockAll();
+        try {
+            settleChanges();
+            listeners.add(listener);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Starts recording the board in the given history, which then answers the {@code asOf} queries.
+     */
+    public void attachHistory(BoardHistory boardHistory) {
+        lockAll();
+        try {
+            settleChanges();
+            boardHistory.begin(version.get(), matches.snapshot());
+            listeners.add(boardHistory);
+            history = boardHistory;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private BoardHistory requireHistory() {
+        BoardHistory current = history;
+        if (current == null) {
+            throw new IllegalArgumentException(VERSION_IS_NOT_AVAILABLE);
+        }
+        return current;
+    }
+}
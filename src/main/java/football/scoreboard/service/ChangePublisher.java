@@ -0,0 +1,101 @@
+package football.scoreboard.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the changes of an engine to its listeners one at a time and in version order, without a lock held while
+ * the changes are applied.
+ * <p>
+ * A writer puts its change into the ring slot of the version it claimed and waits until the change is delivered.
+ * Whichever waiting writer gets the delivery lock delivers every change that is ready, its own and those of the other
+ * waiting writers, so a burst of writes is delivered by one thread instead of handing a lock from writer to writer.
+ * A change is ready once every earlier version is in the ring, so a slow writer holds back the later versions but
+ * never lets them overtake it. A writer whose slot is still taken by an undelivered change helps delivering until it
+ * is free.
+ */
+final class ChangePublisher {
+    private final AtomicReferenceArray<Change> ring;
+    private final int mask;
+    private final Consumer<Change> delivery;
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+    //Version of the last delivered change, only written under the delivery lock
+    private volatile long delivered;
+
+    /**
+     * A change as the call to make on each listener.
+     */
+    @FunctionalInterface
+    interface Event {
+        void deliver(ScoreboardListener listener, long version);
+    }
+
+    record Change(long version, Event event) {
+    }
+
+    /**
+     * @param capacity rounded up to a power of two
+     * @param delivery called under the delivery lock, in version order
+     */
+    ChangePublisher(int capacity, Consumer<Change> delivery) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.delivery = delivery;
+    }
+
+    /**
+     * Puts the change of a claimed version into the ring. Every version after the last delivered one has to be
+     * offered exactly once, or the later ones are never delivered.
+     */
+    void offer(long version, Event event) {
+        //The slot is free once the change one ring length earlier is delivered
+        awaitDelivered(version - ring.length());
+        ring.set((int) version & mask, new Change(version, event));
+    }
+
+    /**
+     * Returns once the change of the given version is delivered, delivering ready changes meanwhile. Called by a
+     * listener from inside a delivery, it returns at once: the change is delivered after the current one.
+     */
+    void awaitDelivered(long version) {
+        while (delivered < version) {
+            if (deliveryLock.isHeldByCurrentThread()) {
+                return;
+            }
+            if (deliveryLock.tryLock()) {
+                try {
+                    deliverReady();
+                } finally {
+                    deliveryLock.unlock();
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Continues after the given version, for changes that were applied without being offered, like those made
+     * before the first listener was registered. No change may be waiting in the ring.
+     */
+    void skipTo(long version) {
+        deliveryLock.lock();
+        try {
+            delivered = version;
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+
+    private void deliverReady() {
+        long next = delivered + 1;
+        Change change;
+        while ((change = ring.get((int) next & mask)) != null && change.version() == next) {
+            ring.set((int) next & mask, null);
+            delivery.accept(change);
+            delivered = next++;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package football.scoreboard.service;
+
+import football.scoreboard.Match;
+
+/**
+ * Copy of a match as it was right after a change, handed to the listeners. A change may be delivered after later
+ * changes of the same match were applied, so the listeners must not read the scores from the live match.
+ */
+final class ChangedMatch extends Match {
+    private final long packedScore;
+
+    ChangedMatch(Match match, int homeScore, int awayScore) {
+        super(match.getId(), match.getHomeTeam(), match.getAwayTeam(), match.getStartTime());
+        this.packedScore = pack(homeScore, awayScore);
+    }
+
+    @Override
+    protected long getPackedScore() {
+        return packedScore;
+    }
+
+    @Override
+    protected void setPackedScore(long packedScore) {
+        throw new UnsupportedOperationException("Matches handed to listeners cannot be updated.");
+    }
+}
@@ -0,0 +1,80 @@
+package football.scoreboard.service;
+
+import football.scoreboard.store.MatchStore;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Engine with a read-write lock over the board structure ({@code scoreboard.engine=read-write}).
+ * <p>
+ * Start, finish and reset take the write lock. A score update takes the read lock, so indices cannot shift under it,
+ * and updates of any matches run in parallel. The score of a match is one atomic value, so concurrent updates of the
+ * same match need no lock of their own; with listeners, the engine orders them per match. Reads take no lock.
+ */
+public class ReadWriteLockScoreboardEngine extends AbstractScoreboardEngine {
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+    public ReadWriteLockScoreboardEngine(MatchStore matches) {
+        super(matches);
+    }
+
+    @Override
+    public void startMatch(String homeTeam, String awayTeam) {
+        structureLock.writeLock().lock();
+        try {
+            doStartMatch(homeTeam, awayTeam);
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateScore(int matchIndex, int homeScore, int awayScore) {
+        structureLock.readLock().lock();
+        try {
+            doUpdateScore(matchIndex, homeScore, awayScore);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateScoreById(long matchId, int homeScore, int awayScore) {
+        structureLock.readLock().lock();
+        try {
+            return doUpdateScoreById(matchId, homeScore, awayScore);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void finishMatch(int index) {
+        structureLock.writeLock().lock();
+        try {
+            doFinishMatch(index);
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean finishMatchById(long matchId) {
+        structureLock.writeLock().lock();
+        try {
+            return doFinishMatchById(matchId);
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void reset() {
+        structureLock.writeLock().lock();
+        try {
+            doReset();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+}
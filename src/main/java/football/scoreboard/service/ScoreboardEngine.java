@@ -0,0 +1,92 @@
+package football.scoreboard.service;
+
+import football.scoreboard.Match;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Operations of a live scoreboard. Implementations differ only in how they make concurrent calls safe, and are
+ * selected with the {@code scoreboard.engine} property.
+ */
+public interface ScoreboardEngine extends AutoCloseable {
+    String MATCH_INDEX_IS_OUT_OF_RANGE = "Match index is out of range.";
+    String CANNOT_BE_NULL_OR_EMPTY = "Team names cannot be null or empty";
+    String CANNOT_BE_NEGATIVE = "Scores cannot be negative.";
+    String ALREADY_EXISTS = "A match with one of the teams already exists.";
+    String VERSION_IS_NOT_AVAILABLE = "The requested board version is not available in the history.";
+
+    List<Match> getMatches();
+
+    List<Match> findMatchesByTeam(String team);
+
+    /**
+     * @throws IndexOutOfBoundsException with {@link #MATCH_INDEX_IS_OUT_OF_RANGE} when there is no match at the index
+     */
+    Match getMatch(int index);
+
+    void startMatch(String homeTeam, String awayTeam);
+
+    void updateScore(int matchIndex, int homeScore, int awayScore);
+
+    /**
+     * Throws the same exceptions {@link #updateScore} would, without updating anything.
+     */
+    void validateScoreUpdate(int matchIndex, int homeScore, int awayScore);
+
+    /**
+     * Updates the score of the match with the given {@link Match#getId() id}, wherever it is on the board.
+     *
+     * @return false if no match with that id is on the board
+     */
+    boolean updateScoreById(long matchId, int homeScore, int awayScore);
+
+    void finishMatch(int index);
+
+    /**
+     * Finishes the match with the given {@link Match#getId() id}, wherever it is on the board.
+     *
+     * @return false if no match with that id is on the board
+     */
+    boolean finishMatchById(long matchId);
+
+    List<String> getFormatedSortedSummary();
+
+    List<Match> getSortedMatches();
+
+    /**
+     * Board as it was right after the given version, sorted like the summary.
+     *
+     * @throws IllegalArgumentException with {@link #VERSION_IS_NOT_AVAILABLE} if history is disabled, or the version
+     *                                  is in the future or no longer kept
+     */
+    List<Match> getSortedMatches(long asOfVersion);
+
+    /**
+     * Board as it was at the given moment, sorted like the summary.
+     *
+     * @throws IllegalArgumentException with {@link #VERSION_IS_NOT_AVAILABLE} if history is disabled or the moment
+     *                                  is older than the kept history
+     */
+    List<Match> getSortedMatches(Instant asOf);
+
+    void reset();
+
+    /**
+     * Number of changes applied to the board so far. Every start, score update, finish and reset adds one.
+     */
+    long getVersion();
+
+    /**
+     * Registers a listener for every later change. Listeners are meant to be added while the engine is set up,
+     * before it takes writes.
+     */
+    void addListener(ScoreboardListener listener);
+
+    /**
+     * Releases threads or other resources held by the engine.
+     */
+    @Override
+    default void close() {
+    }
+}
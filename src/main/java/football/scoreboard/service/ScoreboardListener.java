@@ -0,0 +1,36 @@
+package football.scoreboard.service;
+
+import football.scoreboard.Match;
+
+import java.util.List;
+
+/**
+ * Receives every change of the board, registered with {@link ScoreboardEngine#addListener}.
+ * <p>
+ * Each change carries the board version it produced. Versions increase by one per change and listeners are called
+ * one change at a time, in version order, by one of the writing threads while the writes wait for their changes to
+ * be delivered. Listeners must therefore be quick, must not block on other threads that write to the engine, and
+ * must not write to the engine themselves. The match passed in is a copy as of the change: by the time a listener
+ * gets it, the live match may already have changed again.
+ * <p>
+ * An exception thrown by a listener is logged by the engine and does not undo the change, fail the write or keep
+ * the change from the other listeners. A listener that keeps its own state should therefore not throw halfway
+ * through updating it.
+ */
+public interface ScoreboardListener {
+
+    default void onMatchStarted(long version, Match match) {
+    }
+
+    default void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+    }
+
+    default void onMatchFinished(long version, Match match) {
+    }
+
+    /**
+     * @param finishedMatches the matches that were on the board before the reset
+     */
+    default void onReset(long version, List<Match> finishedMatches) {
+    }
+}
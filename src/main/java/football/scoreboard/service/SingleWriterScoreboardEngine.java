@@ -0,0 +1,92 @@
+package football.scoreboard.service;
+
+import football.scoreboard.store.MatchStore;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Engine in which one dedicated thread applies every write ({@code scoreboard.engine=single-writer}).
+ * <p>
+ * Callers hand their write to the writer thread and wait for it, so they still see the write's exceptions. Writers
+ * never contend on a lock with each other, and the writer thread keeps the board hot in its cache. Reads do not go
+ * through the writer.
+ */
+public class SingleWriterScoreboardEngine extends AbstractScoreboardEngine {
+    private final ExecutorService writer;
+    private volatile Thread writerThread;
+
+    public SingleWriterScoreboardEngine(MatchStore matches) {
+        super(matches);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scoreboard-writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+    }
+
+    @Override
+    public void startMatch(String homeTeam, String awayTeam) {
+        write(() -> doStartMatch(homeTeam, awayTeam));
+    }
+
+    @Override
+    public void updateScore(int matchIndex, int homeScore, int awayScore) {
+        write(() -> doUpdateScore(matchIndex, homeScore, awayScore));
+    }
+
+    @Override
+    public boolean updateScoreById(long matchId, int homeScore, int awayScore) {
+        return write(() -> doUpdateScoreById(matchId, homeScore, awayScore));
+    }
+
+    @Override
+    public void finishMatch(int index) {
+        write(() -> doFinishMatch(index));
+    }
+
+    @Override
+    public boolean finishMatchById(long matchId) {
+        return write(() -> doFinishMatchById(matchId));
+    }
+
+    @Override
+    public void reset() {
+        write(this::doReset);
+    }
+
+    private void write(Runnable operation) {
+        write(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private <T> T write(Supplier<T> operation) {
+        //A write issued from the writer thread itself would wait for itself.
+        if (Thread.currentThread() == writerThread) {
+            return operation.get();
+        }
+        Future<T> result = writer.submit(operation::get);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the scoreboard writer.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,4 @@
+package football.scoreboard.stats;
+
+public record MatchScore(long matchId, String homeTeam, String awayTeam, int homeScore, int awayScore) {
+}
@@ -0,0 +1,200 @@
+package football.scoreboard.stats;
+
+import football.scoreboard.Match;
+import football.scoreboard.index.TeamSearchIndex;
+import football.scoreboard.service.ScoreboardListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling statistics of the day kept up to date from the score deltas of the engine, so that reading them never
+ * scans the board: goals in the last window of time, goals and average goals per match today, goals per team today
+ * and the highest scoring match today.
+ * <p>
+ * A score change costs a few map lookups and array updates. The highest total is tracked with a count of matches
+ * per total and the match that last reached each total. Only a corrected score can leave that match away from the
+ * highest total, and only then are the matches of the day scanned for another match at it.
+ * Matches count for the day their listener first saw them on, by the zone of the clock; at midnight the finished
+ * matches are dropped and the live ones carry over.
+ */
+public class ScoreboardStatistics implements ScoreboardListener {
+    private final Clock clock;
+    private final Duration window;
+    private final SlidingWindowCounter goalsInWindow;
+    //Matches of the day by id, both live and finished
+    private final Map<Long, Tally> matches = new HashMap<>();
+    private final Map<String, Long> goalsByTeam = new HashMap<>();
+    //Number of matches of the day per total score, and the match that last reached each total
+    private int[] matchesByTotal = new int[16];
+    private long[] lastToReachTotal = new long[16];
+    private int highestTotal = -1;
+    private long goalsToday;
+    private int liveMatches;
+    private LocalDate day;
+
+    private static final class Tally {
+        private final long id;
+        private final String homeTeam;
+        private final String awayTeam;
+        private int homeScore;
+        private int awayScore;
+        private boolean live = true;
+
+        private Tally(long id, String homeTeam, String awayTeam, int homeScore, int awayScore) {
+            this.id = id;
+            this.homeTeam = homeTeam;
+            this.awayTeam = awayTeam;
+            this.homeScore = homeScore;
+            this.awayScore = awayScore;
+        }
+
+        private int total() {
+            return homeScore + awayScore;
+        }
+    }
+
+    public ScoreboardStatistics(Clock clock, Duration window, int buckets) {
+        this.clock = clock;
+        this.window = window;
+        this.goalsInWindow = new SlidingWindowCounter(window.toMillis(), buckets);
+        this.day = LocalDate.now(clock);
+    }
+
+    @Override
+    public synchronized void onMatchStarted(long version, Match match) {
+        rollOver();
+        tallyOf(match);
+    }
+
+    @Override
+    public synchronized void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+        rollOver();
+        Tally tally = tallyOf(match);
+        int homeGoals = match.getHomeScore() - tally.homeScore;
+        int awayGoals = match.getAwayScore() - tally.awayScore;
+        int previousTotal = tally.total();
+        tally.homeScore = match.getHomeScore();
+        tally.awayScore = match.getAwayScore();
+
+        //Corrected goals count negative, so a disallowed goal also leaves the window
+        goalsInWindow.add(clock.millis(), homeGoals + awayGoals);
+        goalsToday += homeGoals + awayGoals;
+        goalsByTeam.merge(key(tally.homeTeam), (long) homeGoals, Long::sum);
+        goalsByTeam.merge(key(tally.awayTeam), (long) awayGoals, Long::sum);
+        moveTotal(tally, previousTotal);
+    }
+
+    @Override
+    public synchronized void onMatchFinished(long version, Match match) {
+        rollOver();
+        Tally tally = matches.get(match.getId());
+        if (tally != null && tally.live) {
+            tally.live = false;
+            liveMatches--;
+        }
+    }
+
+    @Override
+    public synchronized void onReset(long version, List<Match> finishedMatches) {
+        rollOver();
+        //The matches were played, they stay in today's statistics as finished
+        for (Tally tally : matches.values()) {
+            tally.live = false;
+        }
+        liveMatches = 0;
+    }
+
+    public synchronized ScoreboardStats snapshot() {
+        rollOver();
+        MatchScore highest = null;
+        if (highestTotal >= 0) {
+            Tally tally = matches.get(lastToReachTotal[highestTotal]);
+            highest = new MatchScore(tally.id, tally.homeTeam, tally.awayTeam, tally.homeScore, tally.awayScore);
+        }
+        return new ScoreboardStats(clock.instant(), day, window.toMinutes(), goalsInWindow.sum(clock.millis()),
+                goalsToday, matches.size(), liveMatches,
+                matches.isEmpty() ? 0 : (double) goalsToday / matches.size(), highest);
+    }
+
+    /**
+     * Goals of a team today, found by its normalized name.
+     */
+    public synchronized TeamGoals goalsOf(String team) {
+        rollOver();
+        return new TeamGoals(team, goalsByTeam.getOrDefault(key(team), 0L));
+    }
+
+    private Tally tallyOf(Match match) {
+        Tally tally = matches.get(match.getId());
+        if (tally == null) {
+            //A match the listener did not see start counts all of its goals with its first update
+            tally = new Tally(match.getId(), match.getHomeTeam(), match.getAwayTeam(), 0, 0);
+            matches.put(tally.id, tally);
+            liveMatches++;
+            countTotal(0, 1, tally.id);
+        }
+        return tally;
+    }
+
+    private void moveTotal(Tally tally, int previousTotal) {
+        countTotal(previousTotal, -1, tally.id);
+        countTotal(tally.total(), 1, tally.id);
+        Tally holder = matches.get(lastToReachTotal[highestTotal]);
+        if (holder != null && holder.total() == highestTotal) {
+            return;
+        }
+        //Only after a correction: the match that last reached the highest total has left it, find another one
+        for (Tally other : matches.values()) {
+            if (other.total() == highestTotal) {
+                lastToReachTotal[highestTotal] = other.id;
+                return;
+            }
+        }
+    }
+
+    private void countTotal(int total, int delta, long matchId) {
+        if (total >= matchesByTotal.length) {
+            int length = Math.max(matchesByTotal.length * 2, total + 1);
+            matchesByTotal = Arrays.copyOf(matchesByTotal, length);
+            lastToReachTotal = Arrays.copyOf(lastToReachTotal, length);
+        }
+        matchesByTotal[total] += delta;
+        if (delta > 0) {
+            lastToReachTotal[total] = matchId;
+            highestTotal = Math.max(highestTotal, total);
+        }
+        while (highestTotal >= 0 && matchesByTotal[highestTotal] == 0) {
+            highestTotal--;
+        }
+    }
+
+    private void rollOver() {
+        LocalDate today = LocalDate.now(clock);
+        if (!today.isAfter(day)) {
+            return;
+        }
+        day = today;
+        matches.values().removeIf(tally -> !tally.live);
+        goalsByTeam.clear();
+        Arrays.fill(matchesByTotal, 0);
+        highestTotal = -1;
+        goalsToday = 0;
+        //Live matches start the new day from their current score
+        for (Tally tally : matches.values()) {
+            goalsToday += tally.total();
+            goalsByTeam.merge(key(tally.homeTeam), (long) tally.homeScore, Long::sum);
+            goalsByTeam.merge(key(tally.awayTeam), (long) tally.awayScore, Long::sum);
+            countTotal(tally.total(), 1, tally.id);
+        }
+    }
+
+    private static String key(String team) {
+        return TeamSearchIndex.normalize(team);
+    }
+}
@@ -0,0 +1,13 @@
+package football.scoreboard.stats;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Statistics of the board at one moment, as answered by {@link ScoreboardStatistics#snapshot()}. {@code
+ * highestScoringMatch} is null before the first match of the day.
+ */
+public record ScoreboardStats(Instant at, LocalDate day, long windowMinutes, long goalsInWindow, long goalsToday,
+                              int matchesToday, int liveMatches, double averageGoalsPerMatch,
+                              MatchScore highestScoringMatch) {
+}
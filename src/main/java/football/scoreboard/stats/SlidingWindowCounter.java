@@ -0,0 +1,65 @@
+package football.scoreboard.stats;
+
+import java.util.Arrays;
+
+/**
+ * Sum of the values added within the last window of time, kept in a ring of fixed-width buckets of primitive
+ * counts with a running total. The window slides one bucket at a time, so a value leaves the sum up to one bucket
+ * width late.
+ * <p>
+ * Sliding the window clears at most every bucket once, so both {@link #add} and {@link #sum} cost at most the
+ * number of buckets and usually one step, whatever the rate of values. Not thread-safe.
+ */
+public class SlidingWindowCounter {
+    private final long bucketMillis;
+    private final long[] counts;
+    private long total;
+    //Number of the newest bucket since the epoch, every older bucket still in the ring is within the window
+    private long newestBucket = Long.MIN_VALUE;
+
+    public SlidingWindowCounter(long windowMillis, int buckets) {
+        if (buckets < 1 || windowMillis < buckets) {
+            throw new IllegalArgumentException("Window must be positive and hold at least one millisecond per bucket.");
+        }
+        this.bucketMillis = windowMillis / buckets;
+        this.counts = new long[buckets];
+    }
+
+    public void add(long nowMillis, long value) {
+        int slot = slide(nowMillis);
+        counts[slot] += value;
+        total += value;
+    }
+
+    public long sum(long nowMillis) {
+        slide(nowMillis);
+        return total;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    //Clears the buckets that left the window and returns the slot of the current bucket
+    private int slide(long nowMillis) {
+        long bucket = Math.floorDiv(nowMillis, bucketMillis);
+        if (newestBucket == Long.MIN_VALUE || bucket - newestBucket >= counts.length) {
+            clear();
+            newestBucket = bucket;
+        } else {
+            //A clock stepping back keeps adding to the newest bucket
+            for (long next = newestBucket + 1; next <= bucket; next++) {
+                int slot = slotOf(next);
+                total -= counts[slot];
+                counts[slot] = 0;
+            }
+            newestBucket = Math.max(newestBucket, bucket);
+        }
+        return slotOf(newestBucket);
+    }
+
+    private int slotOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+}
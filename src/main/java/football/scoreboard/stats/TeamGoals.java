@@ -0,0 +1,4 @@
+package football.scoreboard.stats;
+
+public record TeamGoals(String team, long goalsToday) {
+}
@@ -0,0 +1,52 @@
+package football.scoreboard.store;
+
+import football.scoreboard.Match;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class CopyOnWriteMatchStore implements MatchStore {
+    //CopyOnWriteArrayList allows for safe iteration and modification of the list without explicit synchronization,
+    //although it does incur a performance penalty on write operations since it creates a new copy upon modification.
+    private final CopyOnWriteArrayList<Match> matches = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Match add(String homeTeam, String awayTeam) {
+        Match match = new Match(homeTeam, awayTeam);
+        matches.add(match);
+        return match;
+    }
+
+    @Override
+    public Match get(int index) {
+        return matches.get(index);
+    }
+
+    @Override
+    public Match remove(int index) {
+        return matches.remove(index);
+    }
+
+    @Override
+    public Match removeById(long matchId) {
+        //Structural writes are serialized by the caller, so the index found cannot shift before the removal
+        int index = indexOf(matchId);
+        return index < 0 ? null : matches.remove(index);
+    }
+
+    @Override
+    public int size() {
+        return matches.size();
+    }
+
+    @Override
+    public List<Match> snapshot() {
+        return new ArrayList<>(matches);
+    }
+
+    @Override
+    public void clear() {
+        matches.clear();
+    }
+}
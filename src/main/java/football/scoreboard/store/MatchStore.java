@@ -0,0 +1,74 @@
+package football.scoreboard.store;
+
+import football.scoreboard.Match;
+
+import java.util.List;
+
+/**
+ * Ordered storage of the live matches of a scoreboard, in the order they were started. Match ids are handed out
+ * in start order too, so the ids on the board are ascending.
+ * <p>
+ * Reads ({@link #get}, {@link #size}, {@link #snapshot}) are safe to call concurrently with anything. Structural
+ * writes ({@link #add}, {@link #remove}, {@link #clear}) are serialized by the caller.
+ */
+public interface MatchStore {
+
+    Match add(String homeTeam, String awayTeam);
+
+    /**
+     * @throws IndexOutOfBoundsException when there is no match at the index
+     */
+    Match get(int index);
+
+    /**
+     * @throws IndexOutOfBoundsException when there is no match at the index
+     */
+    Match remove(int index);
+
+    /**
+     * Removes the match with the given {@link Match#getId() id}, wherever it is on the board.
+     *
+     * @return the removed match, or null when no match with that id is on the board
+     */
+    Match removeById(long matchId);
+
+    /**
+     * Returns the index of the match with the given {@link Match#getId() id}, or -1 when it is not on the board.
+     * The ids on the board are ascending, so this is a binary search. The result is only reliable while
+     * structural writes are kept out.
+     */
+    default int indexOf(long matchId) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long id = get(middle).getId();
+            if (id < matchId) {
+                low = middle + 1;
+            } else if (id > matchId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Updates the score of the match at the index without handing out the match itself.
+     *
+     * @throws IndexOutOfBoundsException when there is no match at the index
+     */
+    default void updateScore(int index, int homeScore, int awayScore) {
+        get(index).updateScore(homeScore, awayScore);
+    }
+
+    int size();
+
+    /**
+     * Returns a new list with the live matches, in start order.
+     */
+    List<Match> snapshot();
+
+    void clear();
+}
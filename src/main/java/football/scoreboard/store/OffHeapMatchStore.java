@@ -0,0 +1,380 @@
+package football.scoreboard.store;
+
+import football.scoreboard.Match;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * {@link MatchStore} that keeps the match records outside the Java heap, for boards with tens of thousands of
+ * matches.
+ * <p>
+ * Every match is a fixed-width slot in a direct {@link ByteBuffer} chunk, and chunks are added as the board grows.
+ * Slots of finished matches go to a free list and are reused by later matches. A per-slot generation tells a reused
+ * slot apart from the match a view was made for. The {@link Match} objects handed out are short-lived flyweight
+ * views over a slot, so the long-lived heap graph per match is reduced to its entry in the order array.
+ */
+public class OffHeapMatchStore implements MatchStore {
+    public static final int MAX_NAME_BYTES = 108;
+    public static final String TEAM_NAME_TOO_LONG = "Team names cannot be longer than " + MAX_NAME_BYTES + " bytes.";
+    public static final String STORE_IS_FULL = "The off-heap match store is full.";
+
+    static final int SLOT_SIZE = 256;
+    //Slot layout, offsets in bytes
+    private static final int SCORE = 0;            //long, home and away score packed as in Match
+    private static final int START_SECONDS = 8;    //long, start time as UTC epoch seconds
+    private static final int START_NANOS = 16;     //int
+    private static final int GENERATION = 20;      //int, incremented whenever the slot is freed
+    private static final int ID = 24;              //long, Match id
+    private static final int HOME_LENGTH = 32;     //short
+    private static final int AWAY_LENGTH = 34;     //short
+    private static final int HOME_NAME = 36;       //UTF-8 bytes
+    private static final int AWAY_NAME = HOME_NAME + MAX_NAME_BYTES;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    //An order entry is the slot number in the upper 24 bits and the low 8 bits of the slot generation, which is as
+    //small as the reference array of the heap store and still detects a slot that was reused after it was read.
+    private static final int GENERATION_BITS = 8;
+    private static final int GENERATION_TAG = (1 << GENERATION_BITS) - 1;
+    private static final int MAX_SLOTS = 1 << (Integer.SIZE - GENERATION_BITS);
+
+    private final int slotsPerChunk;
+    //Score writes share the read lock, so they can never land in a slot that is being freed and reused.
+    //Allocating and freeing slots take the write lock.
+    private final StampedLock slotLock = new StampedLock();
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    //Slot and generation tag of every live match in board order, replaced as a whole on every structural write.
+    private volatile int[] order = new int[0];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int allocatedSlots;
+
+    public OffHeapMatchStore(int slotsPerChunk) {
+        if (slotsPerChunk < 1) {
+            throw new IllegalArgumentException("Slots per chunk must be positive.");
+        }
+        this.slotsPerChunk = slotsPerChunk;
+    }
+
+    @Override
+    public Match add(String homeTeam, String awayTeam) {
+        byte[] home = encode(homeTeam);
+        byte[] away = encode(awayTeam);
+        LocalDateTime startTime = LocalDateTime.now();
+        long id = OffHeapMatch.nextMatchId();
+
+        long stamp = slotLock.writeLock();
+        try {
+            int slot = allocateSlot();
+            ByteBuffer chunk = chunkOf(slot);
+            int base = offsetOf(slot);
+            LONG.setVolatile(chunk, base + SCORE, 0L);
+            chunk.putLong(base + START_SECONDS, startTime.toEpochSecond(ZoneOffset.UTC));
+            chunk.putInt(base + START_NANOS, startTime.getNano());
+            chunk.putLong(base + ID, id);
+            chunk.putShort(base + HOME_LENGTH, (short) home.length);
+            chunk.putShort(base + AWAY_LENGTH, (short) away.length);
+            chunk.put(base + HOME_NAME, home);
+            chunk.put(base + AWAY_NAME, away);
+            int generation = (int) INT.getVolatile(chunk, base + GENERATION);
+
+            int[] current = order;
+            int[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = entryOf(slot, generation);
+            order = next;
+            return new OffHeapMatch(this, slot, generation, id, homeTeam, awayTeam, startTime, 0L);
+        } finally {
+            slotLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Match get(int index) {
+        int[] current = order;
+        Objects.checkIndex(index, current.length);
+        OffHeapMatch match = view(current[index]);
+        if (match == null) {
+            //Finished and reused since the order array was read.
+            throw new IndexOutOfBoundsException(index);
+        }
+        return match;
+    }
+
+    @Override
+    public Match remove(int index) {
+        long stamp = slotLock.writeLock();
+        try {
+            Objects.checkIndex(index, order.length);
+            return removeAt(index);
+        } finally {
+            slotLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Match removeById(long matchId) {
+        long stamp = slotLock.writeLock();
+        try {
+            int index = indexOf(matchId);
+            return index < 0 ? null : removeAt(index);
+        } finally {
+            slotLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int indexOf(long matchId) {
+        //Binary search on the id in each slot, without decoding a view per match
+        int[] current = order;
+        int low = 0;
+        int high = current.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int slot = slotOf(current[middle]);
+            long id = chunkOf(slot).getLong(offsetOf(slot) + ID);
+            if (id < matchId) {
+                low = middle + 1;
+            } else if (id > matchId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void updateScore(int index, int homeScore, int awayScore) {
+        //Writes straight into the slot, without decoding a view first.
+        int[] current = order;
+        Objects.checkIndex(index, current.length);
+        int entry = current[index];
+        if (!writeScore(slotOf(entry), generationTagOf(entry), GENERATION_TAG, OffHeapMatch.packScore(homeScore, awayScore))) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    @Override
+    public int size() {
+        return order.length;
+    }
+
+    @Override
+    public List<Match> snapshot() {
+        int[] current = order;
+        List<Match> matches = new ArrayList<>(current.length);
+        for (int entry : current) {
+            OffHeapMatch match = view(entry);
+            if (match != null) {
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void clear() {
+        long stamp = slotLock.writeLock();
+        try {
+            for (int entry : order) {
+                freeSlot(slotOf(entry));
+            }
+            order = new int[0];
+        } finally {
+            slotLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of bytes reserved outside the heap.
+     */
+    public long offHeapBytes() {
+        return (long) chunks.length * slotsPerChunk * SLOT_SIZE;
+    }
+
+    long readScore(int slot, int generation, long lastKnownScore) {
+        ByteBuffer chunk = chunkOf(slot);
+        int base = offsetOf(slot);
+        long score = (long) LONG.getVolatile(chunk, base + SCORE);
+        VarHandle.acquireFence();
+        return (int) INT.getVolatile(chunk, base + GENERATION) == generation ? score : lastKnownScore;
+    }
+
+    boolean writeScore(int slot, int generation, int generationMask, long score) {
+        long stamp = slotLock.readLock();
+        try {
+            ByteBuffer chunk = chunkOf(slot);
+            int base = offsetOf(slot);
+            if (((int) INT.getVolatile(chunk, base + GENERATION) & generationMask) != (generation & generationMask)) {
+                return false;
+            }
+            LONG.setVolatile(chunk, base + SCORE, score);
+            return true;
+        } finally {
+            slotLock.unlockRead(stamp);
+        }
+    }
+
+    private OffHeapMatch view(int entry) {
+        int slot = slotOf(entry);
+        ByteBuffer chunk = chunkOf(slot);
+        int base = offsetOf(slot);
+        int generation = (int) INT.getVolatile(chunk, base + GENERATION);
+        if ((generation & GENERATION_TAG) != generationTagOf(entry)) {
+            return null;
+        }
+
+        String homeTeam = decode(chunk, base + HOME_NAME, chunk.getShort(base + HOME_LENGTH));
+        String awayTeam = decode(chunk, base + AWAY_NAME, chunk.getShort(base + AWAY_LENGTH));
+        LocalDateTime startTime = LocalDateTime.ofEpochSecond(chunk.getLong(base + START_SECONDS),
+                chunk.getInt(base + START_NANOS), ZoneOffset.UTC);
+        long id = chunk.getLong(base + ID);
+        long score = (long) LONG.getVolatile(chunk, base + SCORE);
+
+        //Like StampedLock.validate(): the fields read above belong to this match only if the slot was not freed meanwhile.
+        VarHandle.acquireFence();
+        if ((int) INT.getVolatile(chunk, base + GENERATION) != generation) {
+            return null;
+        }
+        return new OffHeapMatch(this, slot, generation, id, homeTeam, awayTeam, startTime, score);
+    }
+
+    //Called with the write lock held
+    private OffHeapMatch removeAt(int index) {
+        int[] current = order;
+        OffHeapMatch match = view(current[index]);
+        freeSlot(slotOf(current[index]));
+
+        int[] next = new int[current.length - 1];
+        System.arraycopy(current, 0, next, 0, index);
+        System.arraycopy(current, index + 1, next, index, next.length - index);
+        order = next;
+        return match;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (allocatedSlots == MAX_SLOTS) {
+            throw new IllegalStateException(STORE_IS_FULL);
+        }
+        if (allocatedSlots == chunks.length * slotsPerChunk) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = ByteBuffer.allocateDirect(slotsPerChunk * SLOT_SIZE + Long.BYTES)
+                    .alignedSlice(Long.BYTES)
+                    .order(ByteOrder.nativeOrder());
+            chunks = grown;
+        }
+        return allocatedSlots++;
+    }
+
+    private void freeSlot(int slot) {
+        ByteBuffer chunk = chunkOf(slot);
+        int base = offsetOf(slot);
+        INT.setVolatile(chunk, base + GENERATION, (int) INT.getVolatile(chunk, base + GENERATION) + 1);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private ByteBuffer chunkOf(int slot) {
+        return chunks[slot / slotsPerChunk];
+    }
+
+    private int offsetOf(int slot) {
+        return (slot % slotsPerChunk) * SLOT_SIZE;
+    }
+
+    private static int entryOf(int slot, int generation) {
+        return (slot << GENERATION_BITS) | (generation & GENERATION_TAG);
+    }
+
+    private static int slotOf(int entry) {
+        return entry >>> GENERATION_BITS;
+    }
+
+    private static int generationTagOf(int entry) {
+        return entry & GENERATION_TAG;
+    }
+
+    private static byte[] encode(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException(TEAM_NAME_TOO_LONG);
+        }
+        return bytes;
+    }
+
+    private static String decode(ByteBuffer chunk, int offset, int length) {
+        byte[] bytes = new byte[length];
+        chunk.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Flyweight {@link Match} over one slot. Team names and start time never change and are copied when the view is
+     * made. The score is read from and written to the slot for as long as the match is live. Once the match is
+     * finished, the view keeps returning the last score it saw.
+     */
+    private static final class OffHeapMatch extends Match {
+        private final OffHeapMatchStore store;
+        private final int slot;
+        private final int generation;
+        private volatile long lastKnownScore;
+
+        private OffHeapMatch(OffHeapMatchStore store, int slot, int generation,
+                             long id, String homeTeam, String awayTeam, LocalDateTime startTime, long score) {
+            super(id, homeTeam, awayTeam, startTime);
+            this.store = store;
+            this.slot = slot;
+            this.generation = generation;
+            this.lastKnownScore = score;
+        }
+
+        @Override
+        protected long getPackedScore() {
+            long score = store.readScore(slot, generation, lastKnownScore);
+            lastKnownScore = score;
+            return score;
+        }
+
+        @Override
+        protected void setPackedScore(long packedScore) {
+            if (store.writeScore(slot, generation, -1, packedScore)) {
+                lastKnownScore = packedScore;
+            }
+        }
+
+        private static long packScore(int homeScore, int awayScore) {
+            return pack(homeScore, awayScore);
+        }
+
+        private static long nextMatchId() {
+            return nextId();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof OffHeapMatch view
+                    && view.store == store && view.slot == slot && view.generation == generation;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * slot + generation;
+        }
+    }
+}
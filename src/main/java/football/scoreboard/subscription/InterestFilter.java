@@ -0,0 +1,34 @@
+package football.scoreboard.subscription;
+
+import football.scoreboard.index.TeamSearchIndex;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * What a subscriber wants to hear about. A change is delivered when it matches any of the criteria: a followed
+ * team plays in the match, the match id is followed, the total score is at or above {@code minTotalScore} before or
+ * after the change, or the match is ranked within the first {@code topN} of the summary before or after the change.
+ * A top-N subscriber also hears about a match that another match's change pushed into or out of its first
+ * {@code topN}.
+ *
+ * @param minTotalScore null when not used
+ * @param topN          null when not used
+ */
+public record InterestFilter(Set<String> teams, Set<Long> matchIds, Integer minTotalScore, Integer topN) {
+
+    public InterestFilter {
+        //Team names are kept normalized, the same way the team search does
+        teams = teams == null ? Set.of() : teams.stream()
+                .map(TeamSearchIndex::normalize)
+                .filter(team -> !team.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        matchIds = matchIds == null ? Set.of() : Set.copyOf(matchIds);
+        if ((minTotalScore != null && minTotalScore < 0) || (topN != null && topN < 1)) {
+            throw new IllegalArgumentException(SubscriptionRegistry.INVALID_FILTER);
+        }
+        if (teams.isEmpty() && matchIds.isEmpty() && minTotalScore == null && topN == null) {
+            throw new IllegalArgumentException(SubscriptionRegistry.INVALID_FILTER);
+        }
+    }
+}
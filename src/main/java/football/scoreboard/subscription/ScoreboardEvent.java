@@ -0,0 +1,18 @@
+package football.scoreboard.subscription;
+
+/**
+ * One change of the board as delivered to subscribers. Scores are the ones after the change, and match fields are
+ * empty for {@link Type#RESET}. A {@link Type#RANK_CHANGED} event carries a match whose score did not change, but
+ * that another match's change moved into or out of the subscriber's top N.
+ */
+public record ScoreboardEvent(long version, Type type, long matchId, String homeTeam, String awayTeam,
+                              int homeScore, int awayScore) {
+
+    public enum Type {
+        STARTED,
+        SCORE_UPDATED,
+        FINISHED,
+        RESET,
+        RANK_CHANGED
+    }
+}
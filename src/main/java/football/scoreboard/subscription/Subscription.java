@@ -0,0 +1,67 @@
+package football.scoreboard.subscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A registered {@link InterestFilter} with a bounded queue of the events routed to it. When the queue is full the
+ * oldest event is dropped and counted as missed. The subscription belongs to the client that created it, and
+ * remembers when it was last used so that the registry can expire it.
+ */
+public class Subscription {
+    private final String id;
+    private final String owner;
+    private final InterestFilter filter;
+    private final int capacity;
+    private final ArrayDeque<ScoreboardEvent> events;
+    private long missed;
+    private volatile long lastUsedAt;
+
+    Subscription(String id, String owner, InterestFilter filter, int capacity, long now) {
+        this.id = id;
+        this.owner = owner;
+        this.filter = filter;
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(Math.min(capacity, 64));
+        this.lastUsedAt = now;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public InterestFilter getFilter() {
+        return filter;
+    }
+
+    long lastUsedAt() {
+        return lastUsedAt;
+    }
+
+    void used(long now) {
+        lastUsedAt = now;
+    }
+
+    synchronized void offer(ScoreboardEvent event) {
+        if (events.size() == capacity) {
+            events.pollFirst();
+            missed++;
+        }
+        events.addLast(event);
+    }
+
+    synchronized SubscriptionEvents poll(int max) {
+        List<ScoreboardEvent> polled = new ArrayList<>(Math.min(max, events.size()));
+        while (polled.size() < max && !events.isEmpty()) {
+            polled.add(events.pollFirst());
+        }
+        SubscriptionEvents result = new SubscriptionEvents(polled, missed);
+        missed = 0;
+        return result;
+    }
+}
@@ -0,0 +1,12 @@
+package football.scoreboard.subscription;
+
+import java.util.List;
+
+/**
+ * Result of one poll.
+ *
+ * @param missed number of events dropped since the last poll because the subscriber's queue was full. A subscriber
+ *               that missed events should fetch its matches again instead of relying on the events.
+ */
+public record SubscriptionEvents(List<ScoreboardEvent> events, long missed) {
+}
@@ -0,0 +1,320 @@
+package football.scoreboard.subscription;
+
+import football.scoreboard.Match;
+import football.scoreboard.index.MatchRanking;
+import football.scoreboard.index.TeamSearchIndex;
+import football.scoreboard.service.ScoreboardListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Routes board changes only to the subscribers whose {@link InterestFilter} matches them.
+ * <p>
+ * Subscriptions are kept in an inverted index: by normalized team name, by match id, by score threshold and by
+ * top-N rank. A change looks up the two teams and the match id in hash maps, takes the range of thresholds at or
+ * below the match's total score, and the range of top-N subscriptions deeper than the match's rank. The cost of a
+ * change therefore grows with the number of subscribers interested in it, not with all subscribers times the board.
+ * The rank of a match is only searched for up to the largest subscribed N.
+ * <p>
+ * A match that moves past rank N also moves one other match across it: the match it pushed out of the top N, or the
+ * one that took its place. Top-N subscribers get a {@link ScoreboardEvent.Type#RANK_CHANGED} event for that match,
+ * found in the same search down to the largest subscribed N. Matches that only shift within the top N are not
+ * reported; subscribers can fetch their matches again to see the new order.
+ * <p>
+ * A subscription that is not polled for the idle time to live is removed, so subscribers that went away do not hold
+ * on to their share of the cap. Subscriptions are queued by the time they may expire, and a subscription used since it
+ * was queued goes back to the end of the queue, so expiring costs O(1) per subscription and needs no timer thread. A
+ * client may hold only a limited number of subscriptions, so no single client can fill the registry. The N of a top-N
+ * subscription is capped too, as every change searches the ranking down to the largest subscribed N.
+ */
+public class SubscriptionRegistry implements ScoreboardListener {
+    public static final String INVALID_FILTER = "A subscription needs at least one team, match id, non-negative score threshold or positive top-N.";
+    public static final String UNKNOWN_SUBSCRIPTION = "Unknown subscription: ";
+    public static final String TOO_MANY_SUBSCRIPTIONS = "Too many subscriptions.";
+    public static final String TOO_MANY_SUBSCRIPTIONS_FOR_CLIENT = "Too many subscriptions for this client.";
+    public static final String TOP_N_TOO_LARGE = "Top-N can be at most ";
+
+    private final int queueCapacity;
+    private final int maxSubscriptions;
+    private final int maxPerClient;
+    private final int maxTopN;
+    private final long idleTtlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> subscriptionsPerClient = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Expiry> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final Map<String, Set<Subscription>> byTeam = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscription>> byMatchId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Set<Subscription>> byMinTotalScore = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, Set<Subscription>> byTopN = new ConcurrentSkipListMap<>();
+
+    //Only used by the listener methods, which the engine calls one at a time
+    private final MatchRanking ranking = new MatchRanking();
+    private final Map<Long, LiveMatch> liveMatches = new HashMap<>();
+
+    //The match as of its last change, with its team names normalized
+    private record LiveMatch(Match match, String homeTeam, String awayTeam) {
+    }
+
+    //The subscription expires at expiresAt unless it was used after it was queued
+    private record Expiry(Subscription subscription, long expiresAt) {
+    }
+
+    public SubscriptionRegistry(int queueCapacity, int maxSubscriptions, int maxPerClient, int maxTopN,
+                                long idleTtlMillis, LongSupplier nanoClock) {
+        this.queueCapacity = queueCapacity;
+        this.maxSubscriptions = maxSubscriptions;
+        this.maxPerClient = maxPerClient;
+        this.maxTopN = maxTopN;
+        this.idleTtlNanos = TimeUnit.MILLISECONDS.toNanos(idleTtlMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @throws IllegalArgumentException with {@link #TOP_N_TOO_LARGE} when the top-N is above the maximum
+     * @throws IllegalStateException    with {@link #TOO_MANY_SUBSCRIPTIONS} when the registry is full, or with
+     *                                  {@link #TOO_MANY_SUBSCRIPTIONS_FOR_CLIENT} when the client holds its maximum
+     */
+    public Subscription subscribe(InterestFilter filter, String clientId) {
+        if (filter.topN() != null && filter.topN() > maxTopN) {
+            throw new IllegalArgumentException(TOP_N_TOO_LARGE + maxTopN + ".");
+        }
+        long now = nanoClock.getAsLong();
+        expireIdle(now);
+        if (subscriptions.size() >= maxSubscriptions) {
+            throw new IllegalStateException(TOO_MANY_SUBSCRIPTIONS);
+        }
+        subscriptionsPerClient.compute(clientId, (k, count) -> {
+            if (count != null && count >= maxPerClient) {
+                throw new IllegalStateException(TOO_MANY_SUBSCRIPTIONS_FOR_CLIENT);
+            }
+            return count == null ? 1 : count + 1;
+        });
+        Subscription subscription = new Subscription(UUID.randomUUID().toString(), clientId, filter, queueCapacity, now);
+        subscriptions.put(subscription.getId(), subscription);
+        expiryQueue.add(new Expiry(subscription, now + idleTtlNanos));
+        filter.teams().forEach(team -> byTeam.computeIfAbsent(team, k -> ConcurrentHashMap.newKeySet()).add(subscription));
+        filter.matchIds().forEach(id -> byMatchId.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(subscription));
+        if (filter.minTotalScore() != null) {
+            byMinTotalScore.computeIfAbsent(filter.minTotalScore(), k -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        if (filter.topN() != null) {
+            byTopN.computeIfAbsent(filter.topN(), k -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * @return false if there is no such subscription
+     */
+    public boolean unsubscribe(String id) {
+        Subscription subscription = subscriptions.remove(id);
+        if (subscription == null) {
+            return false;
+        }
+        subscriptionsPerClient.computeIfPresent(subscription.getOwner(), (k, count) -> count == 1 ? null : count - 1);
+        InterestFilter filter = subscription.getFilter();
+        filter.teams().forEach(team -> removeFrom(byTeam, team, subscription));
+        filter.matchIds().forEach(matchId -> removeFrom(byMatchId, matchId, subscription));
+        if (filter.minTotalScore() != null) {
+            removeFrom(byMinTotalScore, filter.minTotalScore(), subscription);
+        }
+        if (filter.topN() != null) {
+            removeFrom(byTopN, filter.topN(), subscription);
+        }
+        return true;
+    }
+
+    /**
+     * @throws IllegalArgumentException with {@link #UNKNOWN_SUBSCRIPTION} if there is no such subscription
+     */
+    public SubscriptionEvents poll(String id, int max) {
+        long now = nanoClock.getAsLong();
+        expireIdle(now);
+        Subscription subscription = get(id);
+        subscription.used(now);
+        return subscription.poll(max);
+    }
+
+    /**
+     * The matches of a summary sorted board that the subscription is interested in, in summary order.
+     */
+    public List<Match> matchesFor(String id, List<Match> sortedMatches) {
+        Subscription subscription = get(id);
+        subscription.used(nanoClock.getAsLong());
+        InterestFilter filter = subscription.getFilter();
+        List<Match> result = new ArrayList<>();
+        for (int rank = 0; rank < sortedMatches.size(); rank++) {
+            Match match = sortedMatches.get(rank);
+            if ((filter.topN() != null && rank < filter.topN())
+                    || (filter.minTotalScore() != null && match.getTotalScore() >= filter.minTotalScore())
+                    || filter.matchIds().contains(match.getId())
+                    || filter.teams().contains(TeamSearchIndex.normalize(match.getHomeTeam()))
+                    || filter.teams().contains(TeamSearchIndex.normalize(match.getAwayTeam()))) {
+                result.add(match);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public synchronized void onMatchStarted(long version, Match match) {
+        LiveMatch live = new LiveMatch(match, TeamSearchIndex.normalize(match.getHomeTeam()),
+                TeamSearchIndex.normalize(match.getAwayTeam()));
+        liveMatches.put(match.getId(), live);
+        int deepestTopN = deepestTopN();
+        ranking.put(match.getId(), match.getStartTime(), 0);
+        int rankAfter = ranking.rankOf(match.getId(), deepestTopN);
+        route(eventOf(version, ScoreboardEvent.Type.STARTED, match), live, 0, deepestTopN, rankAfter);
+        routeRankCrossings(version, deepestTopN, rankAfter, deepestTopN);
+    }
+
+    @Override
+    public synchronized void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+        LiveMatch live = liveMatches.get(match.getId());
+        if (live == null) {
+            return;
+        }
+        int deepestTopN = deepestTopN();
+        int rankBefore = ranking.rankOf(match.getId(), deepestTopN);
+        int totalScore = match.getHomeScore() + match.getAwayScore();
+        live = new LiveMatch(match, live.homeTeam(), live.awayTeam());
+        liveMatches.put(match.getId(), live);
+        ranking.put(match.getId(), match.getStartTime(), totalScore);
+        int rankAfter = ranking.rankOf(match.getId(), deepestTopN);
+        route(eventOf(version, ScoreboardEvent.Type.SCORE_UPDATED, match), live,
+                Math.max(totalScore, previousHomeScore + previousAwayScore), rankBefore, rankAfter);
+        routeRankCrossings(version, rankBefore, rankAfter, deepestTopN);
+    }
+
+    @Override
+    public synchronized void onMatchFinished(long version, Match match) {
+        LiveMatch live = liveMatches.remove(match.getId());
+        if (live == null) {
+            return;
+        }
+        int deepestTopN = deepestTopN();
+        int rankBefore = ranking.rankOf(match.getId(), deepestTopN);
+        ranking.remove(match.getId());
+        route(eventOf(version, ScoreboardEvent.Type.FINISHED, match), live,
+                match.getHomeScore() + match.getAwayScore(), rankBefore, deepestTopN);
+        routeRankCrossings(version, rankBefore, deepestTopN, deepestTopN);
+    }
+
+    @Override
+    public synchronized void onReset(long version, List<Match> finishedMatches) {
+        ranking.clear();
+        liveMatches.clear();
+        //A reset concerns everyone
+        ScoreboardEvent event = new ScoreboardEvent(version, ScoreboardEvent.Type.RESET, 0, null, null, 0, 0);
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.offer(event);
+        }
+    }
+
+    private void route(ScoreboardEvent event, LiveMatch live, int highestTotal, int rankBefore, int rankAfter) {
+        Set<Subscription> interested = new LinkedHashSet<>();
+        addAll(interested, byMatchId.get(live.match().getId()));
+        addAll(interested, byTeam.get(live.homeTeam()));
+        addAll(interested, byTeam.get(live.awayTeam()));
+        byMinTotalScore.headMap(highestTotal, true).values().forEach(subscriptions -> addAll(interested, subscriptions));
+        //Ranks start at 0, so a top-N subscriber is interested when N is above the rank before or after the change
+        byTopN.tailMap(Math.min(rankBefore, rankAfter), false).values().forEach(subscriptions -> addAll(interested, subscriptions));
+
+        for (Subscription subscription : interested) {
+            subscription.offer(event);
+        }
+    }
+
+    //Ranks are the ones of the changed match, with deepestTopN meaning below every subscribed N or off the board
+    private void routeRankCrossings(long version, int rankBefore, int rankAfter, int deepestTopN) {
+        if (rankBefore == rankAfter) {
+            return;
+        }
+        //Every N the changed match crossed has one other match crossing it the other way
+        SortedMap<Integer, Set<Subscription>> crossed = byTopN.subMap(Math.min(rankBefore, rankAfter), false,
+                Math.max(rankBefore, rankAfter), true);
+        if (crossed.isEmpty()) {
+            return;
+        }
+        List<Long> top = ranking.top(deepestTopN + 1);
+        for (Map.Entry<Integer, Set<Subscription>> subscribers : crossed.entrySet()) {
+            //Moving up pushed the match now at rank N out of the top N, moving down pulled the one now at N - 1 in
+            int rank = rankAfter < rankBefore ? subscribers.getKey() : subscribers.getKey() - 1;
+            if (rank >= top.size()) {
+                continue;
+            }
+            ScoreboardEvent event = eventOf(version, ScoreboardEvent.Type.RANK_CHANGED,
+                    liveMatches.get(top.get(rank)).match());
+            for (Subscription subscription : subscribers.getValue()) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    private void expireIdle(long now) {
+        Expiry head;
+        //Subscriptions removed by their client are dropped from the head whenever they get there
+        while ((head = expiryQueue.peek()) != null
+                && (head.expiresAt() - now <= 0 || subscriptions.get(head.subscription().getId()) != head.subscription())) {
+            if (!expiryQueue.remove(head)) {
+                continue;
+            }
+            Subscription subscription = head.subscription();
+            long expiresAt = subscription.lastUsedAt() + idleTtlNanos;
+            if (expiresAt - now <= 0) {
+                unsubscribe(subscription.getId());
+            } else if (subscriptions.get(subscription.getId()) == subscription) {
+                //Used since it was queued, it is looked at again when its new idle time runs out
+                expiryQueue.add(new Expiry(subscription, expiresAt));
+            }
+        }
+    }
+
+    private int deepestTopN() {
+        return byTopN.isEmpty() ? 0 : byTopN.lastKey();
+    }
+
+    private Subscription get(String id) {
+        Subscription subscription = id == null ? null : subscriptions.get(id);
+        if (subscription == null) {
+            throw new IllegalArgumentException(UNKNOWN_SUBSCRIPTION + id);
+        }
+        return subscription;
+    }
+
+    private static ScoreboardEvent eventOf(long version, ScoreboardEvent.Type type, Match match) {
+        return new ScoreboardEvent(version, type, match.getId(), match.getHomeTeam(), match.getAwayTeam(),
+                match.getHomeScore(), match.getAwayScore());
+    }
+
+    private static void addAll(Set<Subscription> target, Collection<Subscription> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Subscription>> index, K key, Subscription subscription) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
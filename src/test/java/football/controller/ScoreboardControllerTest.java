@@ -1,24 +1,42 @@
 package football.controller;
 
 import football.scoreboard.Match;
+import football.scoreboard.alert.AlertFeed;
+import football.scoreboard.stats.ScoreboardStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
+import static football.controller.ScoreboardController.BOARD_VERSION_HEADER;
+import static football.controller.ScoreboardController.IDEMPOTENCY_KEY_HEADER;
 import static football.controller.ScoreboardController.INVALID_MATCH_INDEX;
 import static football.controller.ScoreboardController.SCOREBOARD_HAS_BEEN_RESET;
 import static football.scoreboard.service.ScoreboardService.*;
 import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static football.controller.guard.IdempotencyCache.IDEMPOTENCY_KEY_REUSED;
+import static football.scoreboard.subscription.SubscriptionRegistry.INVALID_FILTER;
+import static football.scoreboard.subscription.SubscriptionRegistry.TOP_N_TOO_LARGE;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -32,6 +50,10 @@ public class ScoreboardControllerTest {
     public static final String TEAM = "Team ";
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private ScoreboardStatistics scoreboardStatistics;
+    @Autowired
+    private AlertFeed alertFeed;
 
     private final String BASE_URL = "/vk/scoreboard";
     private final String MATCHES_URL = BASE_URL + "/matches";
@@ -63,6 +85,21 @@ public class ScoreboardControllerTest {
         getTwoMatches();
     }
 
+    @Test
+    public void testGetMatchesByTeam() throws Exception {
+        // Start a few matches
+        startMatch("Côte d'Ivoire", TEAM_B);
+        startMatch(TEAM_C, TEAM_D);
+
+        // Search by normalized team name
+        mockMvc.perform(get(MATCHES_URL).param("team", "cote d'ivoire"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"homeTeam\":\"Côte d'Ivoire\",\"awayTeam\":\"" + TEAM_B + "\"}]"));
+
+        // Search without a team returns all matches
+        getTwoMatchesOf("Côte d'Ivoire");
+    }
+
     @Test
     public void testStartMatchAndExisting() throws Exception {
         // Start a match
@@ -290,6 +327,203 @@ public class ScoreboardControllerTest {
         getSummary("[\"1. " + TEAM_C + " 1 - 2 " + TEAM_D + "\", \"2. " + TEAM_A + " 3 - 0 " + TEAM_B + "\"]");
     }
 
+    @Test
+    public void testGetSummaryAsOfVersion() throws Exception {
+        // Start a match and remember the board version with its first score
+        startMatch(TEAM_A, TEAM_B);
+        updateScore(0, 1, 0);
+        String version = mockMvc.perform(get(SUMMARY_URL))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(BOARD_VERSION_HEADER);
+
+        // Overturn the goal and finish the match
+        updateScore(0, 0, 0);
+        finishMatch();
+        getSummary("[]");
+
+        // The board as of the remembered version still shows the goal
+        mockMvc.perform(get(SUMMARY_URL).param("asOfVersion", version))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"1. " + TEAM_A + " 1 - 0 " + TEAM_B + "\"]"));
+
+        // A version from the future is rejected
+        mockMvc.perform(get(SUMMARY_URL).param("asOfVersion", String.valueOf(Long.MAX_VALUE)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(VERSION_IS_NOT_AVAILABLE));
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        // Statistics of the day survive the reset between tests, so compare against the counts before the goals
+        long teamGoalsBefore = scoreboardStatistics.goalsOf(TEAM_A).goalsToday();
+        long goalsTodayBefore = scoreboardStatistics.snapshot().goalsToday();
+        startMatch(TEAM_A, TEAM_B);
+        updateScore(0, 1, 0);
+        updateScore(0, 2, 0);
+
+        mockMvc.perform(get(BASE_URL + "/stats/teams/{team}", TEAM_A.toLowerCase()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.goalsToday").value(teamGoalsBefore + 2));
+        mockMvc.perform(get(BASE_URL + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windowMinutes").value(15))
+                .andExpect(jsonPath("$.goalsToday").value(goalsTodayBefore + 2))
+                .andExpect(jsonPath("$.liveMatches").value(1));
+    }
+
+    @Test
+    public void testIdempotentRetries() throws Exception {
+        // A retried start with the same key gets the original response instead of ALREADY_EXISTS
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post(MATCHES_URL).header(IDEMPOTENCY_KEY_HEADER, "start-1")
+                            .param(HOME_TEAM, TEAM_A)
+                            .param(AWAY_TEAM, TEAM_B))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Match started: " + TEAM_A + " vs " + TEAM_B));
+        }
+        startMatch(TEAM_C, TEAM_D);
+
+        // A retried finish with the same key does not finish the match that moved to index 0
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(delete(MATCHES_URL + "/0").header(IDEMPOTENCY_KEY_HEADER, "finish-1"))
+                    .andExpect(status().isOk());
+        }
+        getSummary("[\"1. " + TEAM_C + " 0 - 0 " + TEAM_D + "\"]");
+
+        // The same key for another request is rejected
+        mockMvc.perform(delete(MATCHES_URL + "/1").header(IDEMPOTENCY_KEY_HEADER, "finish-1"))
+                .andExpect(status().is(422))
+                .andExpect(content().string(IDEMPOTENCY_KEY_REUSED));
+    }
+
+    @Test
+    public void testRateLimitIgnoresClientChosenHeaders() throws Exception {
+        // A client from its own address rotates a header on every request, which must not give it new buckets
+        int allowed = 0;
+        for (int i = 0; i < 1000; i++) {
+            String clientId = "client-" + i;
+            int status = mockMvc.perform(put(MATCHES_URL + "/0/score").header("X-Client-Id", clientId)
+                            .param(HOME_SCORE, "1")
+                            .param(AWAY_SCORE, "0")
+                            .with(request -> {
+                                request.setRemoteAddr("10.0.0.7");
+                                return request;
+                            }))
+                    .andReturn().getResponse().getStatus();
+            if (status == 429) {
+                break;
+            }
+            allowed++;
+        }
+        assertTrue(allowed < 1000, "Requests of one address should be limited whatever their headers");
+    }
+
+    @Test
+    public void testCompressedSummary() throws Exception {
+        // Start enough matches for gzip to pay off
+        for (int i = 0; i < 20; i++) {
+            startMatch(TEAM + "Home " + i, TEAM + "Away " + i);
+        }
+
+        // Without Accept-Encoding the summary is sent as it is
+        byte[] identity = mockMvc.perform(get(SUMMARY_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // A client accepting gzip gets the same JSON compressed
+        byte[] gzip = mockMvc.perform(get(SUMMARY_URL).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(identity, in.readAllBytes());
+        }
+
+        // The match listing is compressed as well
+        mockMvc.perform(get(MATCHES_URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    public void testSubscription() throws Exception {
+        // Subscribe to one team
+        String id = mockMvc.perform(post(BASE_URL + "/subscriptions").param("team", TEAM_C))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Only the match of the team is delivered
+        startMatch(TEAM_A, TEAM_B);
+        startMatch(TEAM_C, TEAM_D);
+        mockMvc.perform(get(BASE_URL + "/subscriptions/" + id + "/events"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"events\":[{\"type\":\"STARTED\",\"homeTeam\":\"" + TEAM_C + "\"}],\"missed\":0}"));
+        mockMvc.perform(get(BASE_URL + "/subscriptions/" + id + "/matches"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"homeTeam\":\"" + TEAM_C + "\",\"awayTeam\":\"" + TEAM_D + "\"}]"));
+
+        // Remove the subscription
+        mockMvc.perform(delete(BASE_URL + "/subscriptions/" + id))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(BASE_URL + "/subscriptions/" + id + "/events"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testSubscriptionWithoutFilter() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/subscriptions"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(INVALID_FILTER));
+    }
+
+    @Test
+    public void testSubscriptionTopNIsCapped() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/subscriptions").param("topN", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(TOP_N_TOO_LARGE + "100."));
+    }
+
+    @Test
+    public void testAlerts() throws Exception {
+        // Alerts accumulate over the tests, so only the ones fired here are looked at
+        long before = alertFeed.getLastSequence();
+        startMatch(TEAM_A, TEAM_B);
+        updateScore(0, 5, 0);
+
+        // The goals make a high scoring match, and the first goal takes it into the top 3
+        mockMvc.perform(get(BASE_URL + "/alerts").param("since", String.valueOf(before)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].rule").value("high-scoring"))
+                .andExpect(jsonPath("$[1].rule").value("entered-top-3"))
+                .andExpect(jsonPath("$[1].homeTeam").value(TEAM_A));
+        mockMvc.perform(get(BASE_URL + "/alerts").param("since", String.valueOf(before)).param("max", "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    public void testAlertStreamResumesAfterLastEventId() throws Exception {
+        long before = alertFeed.getLastSequence();
+        startMatch(TEAM_A, TEAM_B);
+        updateScore(0, 5, 0);
+
+        // A reconnecting client that got the first alert is sent only the second one, then new ones
+        MvcResult stream = mockMvc.perform(get(BASE_URL + "/alerts/stream").header("Last-Event-ID", before + 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitStreamed(stream, before + 2);
+        updateScore(0, 0, 2);
+        awaitStreamed(stream, before + 3);
+
+        String events = stream.getResponse().getContentAsString();
+        assertFalse(events.contains("id:" + (before + 1) + "\n"), "Alerts up to the last event id should not be replayed");
+        assertTrue(events.contains("event:alert"));
+        assertTrue(events.contains("away-side-leads-by-2"));
+    }
+
     @Test
     public void testResetScoreboard() throws Exception {
         startMatch(TEAM_A, TEAM_B);
@@ -335,6 +569,18 @@ public class ScoreboardControllerTest {
                                 "\"}]"));
     }
 
+    private void getTwoMatchesOf(String firstHomeTeam) throws Exception {
+        // Get the list of matches
+        mockMvc.perform(get(MATCHES_URL))
+                .andExpect(status().isOk())
+                .andExpect(content().json(
+                        "[{\"homeTeam\":\"" + firstHomeTeam +
+                                "\",\"awayTeam\":\"" + TEAM_B +
+                                "\"},{\"homeTeam\":\"" + TEAM_C +
+                                "\",\"awayTeam\":\"" + TEAM_D +
+                                "\"}]"));
+    }
+
     private void resetScoreboard() throws Exception {
         // Reset the scoreboard
         mockMvc.perform(post(BASE_URL + "/reset"))
@@ -342,6 +588,15 @@ public class ScoreboardControllerTest {
                 .andExpect(content().string(SCOREBOARD_HAS_BEEN_RESET));
     }
 
+    // Alerts are sent to the stream by another thread
+    private void awaitStreamed(MvcResult stream, long sequence) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!stream.getResponse().getContentAsString().contains("id:" + sequence + "\n")) {
+            assertTrue(System.nanoTime() < deadline, "Alert " + sequence + " should be streamed");
+            Thread.sleep(10);
+        }
+    }
+
     private void updateScore(int matchIndex, int homeScore, int awayScore) throws Exception {
         // Update the score for a match
         mockMvc.perform(put(MATCHES_URL + "/" + matchIndex + "/score")
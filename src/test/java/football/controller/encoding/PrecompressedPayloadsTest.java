@@ -0,0 +1,80 @@
+package football.controller.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static football.controller.encoding.PrecompressedPayloads.acceptsGzip;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrecompressedPayloadsTest {
+    private ScoreboardService scoreboardService;
+    private PrecompressedPayloads payloads;
+
+    @BeforeEach
+    public void setUp() {
+        scoreboardService = new ScoreboardService();
+        payloads = new PrecompressedPayloads(scoreboardService, new ObjectMapper());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scoreboardService.close();
+    }
+
+    @Test
+    public void testPayloadIsRenderedOncePerVersion() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            scoreboardService.startMatch("Home " + i, "Away " + i);
+        }
+        //Polls of the same version share one rendering
+        EncodedPayload first = payloads.summary();
+        assertSame(first, payloads.summary());
+        assertEquals(scoreboardService.getVersion(), first.version());
+
+        //The gzip variant holds the same JSON
+        assertNotNull(first.gzip(), "A board of 20 matches should compress");
+        assertTrue(first.gzip().length < first.identity().length);
+        assertArrayEquals(first.identity(), gunzip(first.gzip()));
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(scoreboardService.getFormatedSortedSummary()), first.identity());
+
+        //A change renders the next poll again
+        scoreboardService.updateScore(3, 1, 0);
+        EncodedPayload second = payloads.summary();
+        assertNotSame(first, second);
+        assertEquals(first.version() + 1, second.version());
+        assertTrue(new String(second.identity()).startsWith("[\"1. Home 3 1 - 0 Away 3\""));
+    }
+
+    @Test
+    public void testSmallPayloadIsNotCompressed() {
+        //Gzip headers make an empty board larger, so only the identity bytes are kept
+        EncodedPayload empty = payloads.matches();
+        assertEquals("[]", new String(empty.identity()));
+        assertNull(empty.gzip());
+    }
+
+    @Test
+    public void testAcceptEncoding() {
+        assertTrue(acceptsGzip("gzip"));
+        assertTrue(acceptsGzip("deflate, gzip;q=0.8, br"));
+        assertTrue(acceptsGzip("X-GZIP"));
+        assertTrue(acceptsGzip("br, *;q=0.1"));
+        assertFalse(acceptsGzip(null));
+        assertFalse(acceptsGzip("identity"));
+        assertFalse(acceptsGzip("gzip;q=0, *"), "Explicitly refused gzip wins over the wildcard");
+        assertFalse(acceptsGzip("*;q=0"));
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package football.controller.guard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientRateLimiterTest {
+    public static final String CLIENT_A = "client-a";
+    public static final String CLIENT_B = "client-b";
+    private final AtomicLong nanoTime = new AtomicLong(0);
+    private ClientRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        //Burst of 3 requests, refilled at 10 requests per second, at most 2 tracked clients
+        rateLimiter = new ClientRateLimiter(3, 10, 2, nanoTime::get);
+    }
+
+    @Test
+    public void testBurstIsLimited() {
+        //The whole burst is allowed
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire(CLIENT_A), "Request within burst should be allowed");
+        }
+        //The next request is rejected
+        assertFalse(rateLimiter.tryAcquire(CLIENT_A), "Request over burst should be rejected");
+        //Another client has its own bucket
+        assertTrue(rateLimiter.tryAcquire(CLIENT_B), "Other client should not be limited");
+    }
+
+    @Test
+    public void testTokensAreRefilled() {
+        //Use the whole burst
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(CLIENT_A);
+        }
+        assertFalse(rateLimiter.tryAcquire(CLIENT_A), "Request over burst should be rejected");
+
+        //One token is refilled after 100 ms
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(rateLimiter.tryAcquire(CLIENT_A), "Refilled token should be allowed");
+        assertFalse(rateLimiter.tryAcquire(CLIENT_A), "Only one token should be refilled");
+    }
+
+    @Test
+    public void testTrackedClientsAreBounded() {
+        //Two clients are tracked and both buckets are in use
+        rateLimiter.tryAcquire(CLIENT_A);
+        rateLimiter.tryAcquire(CLIENT_B);
+        //A third active client shares the overflow bucket
+        assertTrue(rateLimiter.tryAcquire("client-c"), "Overflow client should be allowed");
+        assertEquals(2, rateLimiter.trackedClients(), "Overflow client should not be tracked");
+
+        //Once a bucket is full again it is forgotten to make room
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(rateLimiter.tryAcquire("client-d"), "New client should be allowed");
+        assertEquals(2, rateLimiter.trackedClients(), "One refilled bucket should be evicted");
+    }
+
+    @Test
+    public void testBucketsInUseAreKeptOnEviction() {
+        //The first client uses its whole burst, the second one a single token
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(CLIENT_A);
+        }
+        rateLimiter.tryAcquire(CLIENT_B);
+
+        //After 150 ms only the second bucket is full again, so it makes room although it is not the oldest
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        assertTrue(rateLimiter.tryAcquire("client-c"), "New client should be allowed");
+        assertEquals(2, rateLimiter.trackedClients(), "Only the refilled bucket should be evicted");
+        //The first client kept its bucket, so it is still limited
+        assertTrue(rateLimiter.tryAcquire(CLIENT_A), "Refilled token should be allowed");
+        assertFalse(rateLimiter.tryAcquire(CLIENT_A), "Bucket in use should not be reset by eviction");
+    }
+}
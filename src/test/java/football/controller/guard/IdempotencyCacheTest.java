@@ -0,0 +1,163 @@
+package football.controller.guard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static football.controller.guard.IdempotencyCache.IDEMPOTENCY_KEY_REUSED;
+import static football.controller.guard.IdempotencyCache.IDEMPOTENCY_KEY_TOO_LONG;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyCacheTest {
+    public static final String CLIENT_A = "client-a";
+    public static final String CLIENT_B = "client-b";
+    public static final String FINISH = "DELETE /vk/scoreboard/matches/0";
+    private final AtomicLong nanoTime = new AtomicLong(0);
+    private final AtomicInteger applied = new AtomicInteger();
+    private IdempotencyCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        //Keys live for 1 second, at most 3 kept keys
+        cache = new IdempotencyCache(1_000, 3, nanoTime::get);
+    }
+
+    @Test
+    public void testRetryGetsOriginalResponse() {
+        //The first request runs the mutation
+        ResponseEntity<String> first = cache.execute(CLIENT_A, "key-1", FINISH, this::finish);
+        assertEquals("finished 1", first.getBody());
+
+        //A retry gets the same response without running it again
+        assertSame(first, cache.execute(CLIENT_A, "key-1", FINISH, this::finish));
+        assertEquals(1, applied.get());
+
+        //Keys are scoped by client
+        assertEquals("finished 2", cache.execute(CLIENT_B, "key-1", FINISH, this::finish).getBody());
+    }
+
+    @Test
+    public void testKeyCannotBeReusedForAnotherRequest() {
+        cache.execute(CLIENT_A, "key-1", FINISH, this::finish);
+
+        //The same key for another request is rejected and nothing runs
+        ResponseEntity<String> reused = cache.execute(CLIENT_A, "key-1", "DELETE /vk/scoreboard/matches/1", this::finish);
+        assertEquals(422, reused.getStatusCode().value());
+        assertEquals(IDEMPOTENCY_KEY_REUSED, reused.getBody());
+        ResponseEntity<String> tooLong = cache.execute(CLIENT_A, "k".repeat(256), FINISH, this::finish);
+        assertEquals(400, tooLong.getStatusCode().value());
+        assertEquals(IDEMPOTENCY_KEY_TOO_LONG, tooLong.getBody());
+        assertEquals(1, applied.get());
+    }
+
+    @Test
+    public void testRateLimitedResponseIsNotKept() {
+        //A 429 is returned but not kept, so the retry runs the mutation
+        ResponseEntity<String> limited = cache.execute(CLIENT_A, "key-1", FINISH,
+                () -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("slow down"));
+        assertEquals(429, limited.getStatusCode().value());
+        assertEquals("finished 1", cache.execute(CLIENT_A, "key-1", FINISH, this::finish).getBody());
+
+        //A failed mutation is not kept either
+        assertThrows(IllegalStateException.class, () -> cache.execute(CLIENT_A, "key-2", FINISH, () -> {
+            throw new IllegalStateException("store failure");
+        }));
+        assertEquals("finished 2", cache.execute(CLIENT_A, "key-2", FINISH, this::finish).getBody());
+    }
+
+    @Test
+    public void testKeysExpireAndAreCapped() {
+        cache.execute(CLIENT_A, "key-1", FINISH, this::finish);
+
+        //After the time to live the key runs the mutation again
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_001));
+        assertEquals("finished 2", cache.execute(CLIENT_A, "key-1", FINISH, this::finish).getBody());
+        assertEquals(1, cache.size(), "The expired key should be evicted");
+
+        //Over the cap the oldest keys are evicted first
+        for (int i = 2; i <= 5; i++) {
+            cache.execute(CLIENT_A, "key-" + i, FINISH, this::finish);
+        }
+        assertEquals(3, cache.size());
+        assertEquals("finished 7", cache.execute(CLIENT_A, "key-2", FINISH, this::finish).getBody(), "Oldest key should be evicted");
+        assertEquals("finished 6", cache.execute(CLIENT_A, "key-5", FINISH, this::finish).getBody(), "Newest key should be kept");
+    }
+
+    @Test
+    public void testConcurrentRetriesRunOnce() throws Exception {
+        final int NUM_THREADS = 8;
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = newFixedThreadPool(NUM_THREADS)) {
+            //The first request blocks inside the mutation
+            Future<ResponseEntity<String>> first = executor.submit(() -> cache.execute(CLIENT_A, "key-1", FINISH, () -> {
+                running.countDown();
+                await(release);
+                return finish();
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            //Retries arriving meanwhile wait for it instead of running the mutation
+            Future<?>[] retries = new Future<?>[NUM_THREADS - 1];
+            for (int i = 0; i < retries.length; i++) {
+                retries[i] = executor.submit(() -> cache.execute(CLIENT_A, "key-1", FINISH, this::finish));
+            }
+            release.countDown();
+            for (Future<?> retry : retries) {
+                assertSame(first.get(), retry.get());
+            }
+            assertEquals(1, applied.get());
+        }
+    }
+
+    @Test
+    public void testRetriesWaitingForFailedRequestGetItsException() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("store failure");
+        try (ExecutorService executor = newFixedThreadPool(2)) {
+            //The first request fails after a retry started waiting for it
+            Future<ResponseEntity<String>> first = executor.submit(() -> cache.execute(CLIENT_A, "key-1", FINISH, () -> {
+                running.countDown();
+                await(release);
+                throw failure;
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            //A retry that comes too late to wait runs the mutation itself and fails the same way
+            Future<ResponseEntity<String>> retry = executor.submit(() -> cache.execute(CLIENT_A, "key-1", FINISH, () -> {
+                throw failure;
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            //Both get the exception of the mutation itself rather than a CompletionException
+            assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+            assertSame(failure, assertThrows(ExecutionException.class, retry::get).getCause());
+        }
+
+        //The failed key is released, so the next retry runs the mutation
+        assertEquals("finished 1", cache.execute(CLIENT_A, "key-1", FINISH, this::finish).getBody());
+    }
+
+    private ResponseEntity<String> finish() {
+        return ResponseEntity.ok("finished " + applied.incrementAndGet());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package football.controller.guard;
+
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreUpdateCoalescerTest {
+
+    @Test
+    public void testUpdatesAreAppliedImmediatelyWithoutWindow() {
+        //Record every applied update
+        List<String> applied = new CopyOnWriteArrayList<>();
+        ScoreUpdateCoalescer coalescer = new ScoreUpdateCoalescer(0);
+
+        ScoreUpdateCoalescer.ScoreWriter writer = (matchId, home, away) -> applied.add(matchId + ":" + home + "-" + away);
+
+        assertEquals(ScoreUpdateCoalescer.Outcome.APPLIED, coalescer.submit(7, 1, 0, writer));
+        assertEquals(ScoreUpdateCoalescer.Outcome.APPLIED, coalescer.submit(7, 2, 0, writer));
+        //The writer reports a match that is no longer on the board
+        assertEquals(ScoreUpdateCoalescer.Outcome.MATCH_FINISHED, coalescer.submit(8, 1, 0, (matchId, home, away) -> false));
+
+        assertEquals(List.of("7:1-0", "7:2-0"), applied, "Every update should be applied");
+        coalescer.shutdown();
+    }
+
+    @Test
+    public void testUpdatesWithinWindowAreCoalesced() throws InterruptedException {
+        //Record every applied update and wait for both matches to be flushed
+        List<String> applied = new CopyOnWriteArrayList<>();
+        CountDownLatch flushed = new CountDownLatch(2);
+        ScoreUpdateCoalescer.ScoreWriter writer = (matchId, home, away) -> {
+            applied.add(matchId + ":" + home + "-" + away);
+            flushed.countDown();
+            return true;
+        };
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        ScoreUpdateCoalescer coalescer = new ScoreUpdateCoalescer(200, flusher);
+
+        //Three updates of the first match and one of the second within the window
+        assertEquals(ScoreUpdateCoalescer.Outcome.PENDING, coalescer.submit(7, 1, 0, writer));
+        coalescer.submit(7, 2, 0, writer);
+        coalescer.submit(8, 0, 1, writer);
+        coalescer.submit(7, 2, 1, writer);
+
+        assertTrue(flushed.await(5, TimeUnit.SECONDS), "Pending updates should be flushed");
+        //Only the last update of each match is applied
+        assertEquals(2, applied.size(), "Updates should be coalesced");
+        assertTrue(applied.containsAll(List.of("7:2-1", "8:0-1")), "Last update of each match should be applied");
+        coalescer.shutdown();
+    }
+
+    @Test
+    public void testPendingUpdateFollowsMatchWhenBoardShifts() throws InterruptedException {
+        //Two matches on the board, the engine resolves the pending update by id when it is flushed
+        ScoreboardService scoreboard = new ScoreboardService();
+        scoreboard.startMatch(TEAM_A, TEAM_B);
+        scoreboard.startMatch(TEAM_C, TEAM_D);
+        long secondMatchId = scoreboard.getMatch(1).getId();
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        ScoreUpdateCoalescer coalescer = new ScoreUpdateCoalescer(200, flusher);
+
+        //An update of the second match is pending while the first one finishes and the second moves to index 0
+        coalescer.submit(secondMatchId, 3, 1, scoreboard::updateScoreById);
+        scoreboard.finishMatch(0);
+        //A match started now takes index 1, where the pending update was submitted
+        scoreboard.startMatch(TEAM_E, TEAM_F);
+        coalescer.shutdown();
+        assertTrue(flusher.awaitTermination(5, TimeUnit.SECONDS), "Pending update should be flushed");
+
+        assertEquals(4, scoreboard.getMatch(0).getTotalScore(), "Update should land on the match it was submitted for");
+        assertEquals(0, scoreboard.getMatch(1).getTotalScore(), "Match now at the submitted index should be untouched");
+    }
+
+    @Test
+    public void testPendingUpdateOfFinishedMatchIsDropped() throws InterruptedException {
+        ScoreboardService scoreboard = new ScoreboardService();
+        scoreboard.startMatch(TEAM_A, TEAM_B);
+        long matchId = scoreboard.getMatch(0).getId();
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        ScoreUpdateCoalescer coalescer = new ScoreUpdateCoalescer(200, flusher);
+
+        //The match finishes and another one takes its index before the update is flushed
+        coalescer.submit(matchId, 2, 2, scoreboard::updateScoreById);
+        scoreboard.finishMatch(0);
+        scoreboard.startMatch(TEAM_C, TEAM_D);
+        coalescer.shutdown();
+        assertTrue(flusher.awaitTermination(5, TimeUnit.SECONDS), "Pending update should be flushed");
+
+        assertEquals(0, scoreboard.getMatch(0).getTotalScore(), "Update of a finished match should be dropped");
+    }
+}
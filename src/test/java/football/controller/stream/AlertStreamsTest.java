@@ -0,0 +1,104 @@
+package football.controller.stream;
+
+import football.scoreboard.SimulatedClock;
+import football.scoreboard.alert.AlertEngine;
+import football.scoreboard.alert.AlertFeed;
+import football.scoreboard.alert.AlertRule;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlertStreamsTest {
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+    private final ScoreboardService service = new ScoreboardService();
+    private final AlertFeed feed = new AlertFeed(16);
+    private final AlertStreams alertStreams = new AlertStreams(feed, 0);
+
+    {
+        //Every kickoff fires an alert
+        service.addListener(new AlertEngine(AlertRule.compileAll("kickoff: total >= 0"), feed, new SimulatedClock()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        alertStreams.shutdown();
+    }
+
+    @Test
+    public void testStreamReplaysAfterSinceThenSendsNewAlertsOnce() throws InterruptedException {
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.startMatch(TEAM_E, TEAM_F);
+
+        //Opened after the first alert, the stream gets the two later ones and then the live one
+        RecordingEmitter emitter = new RecordingEmitter(3);
+        alertStreams.open(1, emitter);
+        service.startMatch(TEAM_G, TEAM_H);
+
+        assertTrue(emitter.received.await(5, TimeUnit.SECONDS), "Replayed and live alerts should be sent");
+        assertEquals(List.of(2L, 3L, 4L), emitter.ids);
+        assertEquals(1, alertStreams.openStreams());
+    }
+
+    @Test
+    public void testSlowClientDoesNotDelayOtherStreams() throws InterruptedException {
+        //The first client does not read, its sends block until it is released
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(3) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter(3);
+        alertStreams.open(0, slow);
+        alertStreams.open(0, fast);
+
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.startMatch(TEAM_E, TEAM_F);
+
+        assertTrue(fast.received.await(5, TimeUnit.SECONDS), "Fast client should get its alerts while the slow one blocks");
+        assertTrue(slow.ids.isEmpty());
+        release.countDown();
+        assertTrue(slow.received.await(5, TimeUnit.SECONDS), "Slow client should catch up once it reads again");
+        assertEquals(List.of(1L, 2L, 3L), slow.ids);
+    }
+
+    //Records the event ids it was sent
+    private static class RecordingEmitter extends SseEmitter {
+        final List<Long> ids = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+
+        RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            Matcher id = EVENT_ID.matcher(event);
+            assertTrue(id.find(), "Every alert should be sent with its sequence as the event id");
+            ids.add(Long.parseLong(id.group(1)));
+            received.countDown();
+        }
+    }
+}
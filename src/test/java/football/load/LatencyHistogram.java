@@ -0,0 +1,74 @@
+package football.load;
+
+/**
+ * Latency histogram with about 1% precision, in the style of HdrHistogram: values are bucketed by their highest
+ * bit, and every power of two is split into {@value #SUB_BUCKETS} linear sub-buckets. Recording is one array
+ * increment, so a histogram per thread can record millions of samples without allocating.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long total;
+    private long max;
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[indexOf(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, in nanoseconds.
+     */
+    public long percentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> exponent) - SUB_BUCKETS / 2;
+        return (exponent + 1) * (SUB_BUCKETS / 2) + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / (SUB_BUCKETS / 2) - 1;
+        long subBucket = index % (SUB_BUCKETS / 2) + SUB_BUCKETS / 2;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
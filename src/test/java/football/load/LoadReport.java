@@ -0,0 +1,36 @@
+package football.load;
+
+import java.util.Map;
+
+/**
+ * Result of one {@link LoadRunner} run: throughput and latency per operation and the heap used while it ran.
+ */
+public record LoadReport(String scenario, String target, long elapsedNanos,
+                         Map<TournamentDay.Kind, LatencyHistogram> writes, LatencyHistogram polls,
+                         long rejected, long heapBefore, long heapPeak) {
+
+    public static void printHeader() {
+        System.out.printf("%-20s %-14s %-8s %10s %12s %10s %10s %10s %10s%n",
+                "scenario", "target", "op", "count", "ops/s", "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)");
+    }
+
+    public void print() {
+        for (Map.Entry<TournamentDay.Kind, LatencyHistogram> write : writes.entrySet()) {
+            printRow(write.getKey().name().toLowerCase(), write.getValue());
+        }
+        printRow("summary", polls);
+        System.out.printf("%-20s %-14s %.1f s, %d rejected, heap %d MB before, %d MB peak%n", scenario, target,
+                elapsedNanos / 1e9, rejected, heapBefore >> 20, heapPeak >> 20);
+    }
+
+    private void printRow(String operation, LatencyHistogram histogram) {
+        System.out.printf("%-20s %-14s %-8s %10d %12d %10.1f %10.1f %10.1f %10.1f%n", scenario, target, operation,
+                histogram.count(), histogram.count() * 1_000_000_000L / Math.max(elapsedNanos, 1),
+                histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3, histogram.percentile(99.9) / 1e3,
+                histogram.max() / 1e3);
+    }
+
+    public long writeCount() {
+        return writes.values().stream().mapToLong(LatencyHistogram::count).sum();
+    }
+}
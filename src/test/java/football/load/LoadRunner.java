@@ -0,0 +1,181 @@
+package football.load;
+
+import football.load.TournamentDay.Event;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a {@link TournamentDay} against a {@link ScoreboardClient}: one feed thread sends the events in schedule
+ * order, like the data feed of a real tournament, while the pollers read the summary for as long as the feed runs.
+ * <p>
+ * With {@code minuteMillis} 0 the feed sends as fast as the scoreboard accepts, which gives the capacity. Otherwise
+ * every simulated minute takes that many milliseconds, and write latency is measured from the time an event was
+ * scheduled rather than sent, so a scoreboard that falls behind shows up as queueing delay.
+ */
+public final class LoadRunner {
+    private static final long HEAP_SAMPLE_MILLIS = 10;
+
+    public record Scenario(String name, TournamentDay.Settings day, int pollers, double minuteMillis) {
+    }
+
+    private LoadRunner() {
+    }
+
+    public static LoadReport run(Scenario scenario, String target, ScoreboardClient client) throws InterruptedException {
+        List<Event> events = TournamentDay.schedule(scenario.day());
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong heapPeak = new AtomicLong(heapBefore);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().factory());
+        sampler.scheduleAtFixedRate(() -> heapPeak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, HEAP_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+        CountDownLatch startLatch = new CountDownLatch(1);
+        AtomicBoolean feeding = new AtomicBoolean(true);
+        LongAdder rejected = new LongAdder();
+        List<LatencyHistogram> pollHistograms = new ArrayList<>();
+        List<Thread> pollers = new ArrayList<>();
+        for (int i = 0; i < scenario.pollers(); i++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            pollHistograms.add(histogram);
+            pollers.add(Thread.ofPlatform().name("load-poller-" + i).start(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (feeding.get()) {
+                    long start = System.nanoTime();
+                    if (!client.summary()) {
+                        rejected.increment();
+                    }
+                    histogram.record(System.nanoTime() - start);
+                }
+            }));
+        }
+
+        Map<TournamentDay.Kind, LatencyHistogram> writeHistograms = new EnumMap<>(TournamentDay.Kind.class);
+        for (TournamentDay.Kind kind : TournamentDay.Kind.values()) {
+            writeHistograms.put(kind, new LatencyHistogram());
+        }
+        //Mirror of the board in start order, the feed is the only writer so it always knows the index of a match
+        LiveMatches live = new LiveMatches(scenario.day().matches());
+        long started = System.nanoTime();
+        startLatch.countDown();
+        try {
+            for (Event event : events) {
+                long scheduled = started + (long) (event.minute() * scenario.minuteMillis() * 1_000_000);
+                long start = scenario.minuteMillis() > 0 ? waitUntil(scheduled) : System.nanoTime();
+                if (!apply(client, event, live)) {
+                    rejected.increment();
+                }
+                writeHistograms.get(event.kind()).record(System.nanoTime() - start);
+            }
+        } finally {
+            feeding.set(false);
+            for (Thread poller : pollers) {
+                poller.join();
+            }
+            sampler.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        LatencyHistogram polls = new LatencyHistogram();
+        pollHistograms.forEach(polls::add);
+        return new LoadReport(scenario.name(), target, elapsed, writeHistograms, polls, rejected.sum(),
+                heapBefore, heapPeak.get());
+    }
+
+    private static boolean apply(ScoreboardClient client, Event event, LiveMatches live) {
+        try {
+            return switch (event.kind()) {
+                case START -> {
+                    boolean accepted = client.startMatch(TournamentDay.homeTeam(event.match()), TournamentDay.awayTeam(event.match()));
+                    if (accepted) {
+                        live.started(event.match());
+                    }
+                    yield accepted;
+                }
+                case GOAL -> {
+                    int index = live.indexOf(event.match());
+                    yield index >= 0 && client.updateScore(index, event.homeScore(), event.awayScore());
+                }
+                case FINISH -> {
+                    int index = live.indexOf(event.match());
+                    boolean accepted = index >= 0 && client.finishMatch(index);
+                    if (accepted) {
+                        live.finished(event.match());
+                    }
+                    yield accepted;
+                }
+            };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Index of a live match on the board in O(log n), so that the write latencies do not include a scan of the
+     * harness' own mirror: a Fenwick tree over the start positions counts the live matches started before a match.
+     */
+    private static final class LiveMatches {
+        private final int[] positions;
+        private final int[] tree;
+        private int nextPosition = 1;
+
+        LiveMatches(int matches) {
+            positions = new int[matches];
+            tree = new int[matches + 1];
+        }
+
+        void started(int match) {
+            positions[match] = nextPosition;
+            add(nextPosition++, 1);
+        }
+
+        void finished(int match) {
+            add(positions[match], -1);
+            positions[match] = 0;
+        }
+
+        int indexOf(int match) {
+            int position = positions[match];
+            if (position == 0) {
+                return -1;
+            }
+            int before = 0;
+            for (int i = position - 1; i > 0; i -= i & -i) {
+                before += tree[i];
+            }
+            return before;
+        }
+
+        private void add(int position, int delta) {
+            for (int i = position; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+    }
+
+    private static long waitUntil(long deadline) {
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            LockSupport.parkNanos(deadline - now);
+        }
+        return deadline;
+    }
+}
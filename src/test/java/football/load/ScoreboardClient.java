@@ -0,0 +1,100 @@
+package football.load;
+
+import football.scoreboard.service.ScoreboardEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The operations a tournament day needs, so the same workload can drive an engine in process or the REST layer.
+ * Every method returns false when the scoreboard rejected the call.
+ */
+public interface ScoreboardClient {
+
+    boolean startMatch(String homeTeam, String awayTeam);
+
+    boolean updateScore(int index, int homeScore, int awayScore);
+
+    boolean finishMatch(int index);
+
+    boolean summary();
+
+    static ScoreboardClient of(ScoreboardEngine engine) {
+        return new ScoreboardClient() {
+            @Override
+            public boolean startMatch(String homeTeam, String awayTeam) {
+                engine.startMatch(homeTeam, awayTeam);
+                return true;
+            }
+
+            @Override
+            public boolean updateScore(int index, int homeScore, int awayScore) {
+                engine.updateScore(index, homeScore, awayScore);
+                return true;
+            }
+
+            @Override
+            public boolean finishMatch(int index) {
+                engine.finishMatch(index);
+                return true;
+            }
+
+            @Override
+            public boolean summary() {
+                return engine.getFormatedSortedSummary() != null;
+            }
+        };
+    }
+
+    /**
+     * Client of a running server, e.g. {@code http://localhost:8081/vk/scoreboard}. The server limits requests per
+     * remote address, so a load test has to raise the rate limit of the server it runs against.
+     */
+    static ScoreboardClient of(HttpClient http, String baseUrl) {
+        return new ScoreboardClient() {
+            @Override
+            public boolean startMatch(String homeTeam, String awayTeam) {
+                return send("POST", "/matches?homeTeam=" + encode(homeTeam) + "&awayTeam=" + encode(awayTeam));
+            }
+
+            @Override
+            public boolean updateScore(int index, int homeScore, int awayScore) {
+                return send("PUT", "/matches/" + index + "/score?homeScore=" + homeScore + "&awayScore=" + awayScore);
+            }
+
+            @Override
+            public boolean finishMatch(int index) {
+                return send("DELETE", "/matches/" + index);
+            }
+
+            @Override
+            public boolean summary() {
+                return send("GET", "/summary");
+            }
+
+            private boolean send(String method, String path) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .method(method, HttpRequest.BodyPublishers.noBody())
+                        .build();
+                try {
+                    return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            private String encode(String value) {
+                return URLEncoder.encode(value, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
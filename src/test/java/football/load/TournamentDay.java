@@ -0,0 +1,75 @@
+package football.load;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic schedule of one simulated tournament day. The same settings and seed always produce the same
+ * events in the same order.
+ * <p>
+ * Matches kick off in bursts, spread evenly over the kickoff slots with a few seconds of jitter. Goals follow a
+ * Poisson process per match: the time to the next goal is exponentially distributed with the mean that gives
+ * {@code goalsPerMatch} goals in {@code matchMinutes}. Each match ends with a final whistle after a random stoppage
+ * time, so the matches of one slot finish in a wave.
+ */
+public final class TournamentDay {
+
+    public enum Kind {
+        START, GOAL, FINISH
+    }
+
+    /**
+     * @param minute     simulated minutes since the first kickoff
+     * @param match      number of the match, also used for its team names
+     * @param homeScore  score after the event
+     * @param awayScore  score after the event
+     */
+    public record Event(double minute, Kind kind, int match, int homeScore, int awayScore) {
+    }
+
+    public record Settings(long seed, int matches, int kickoffSlots, int minutesBetweenSlots, int matchMinutes,
+                           double goalsPerMatch, int maxStoppageMinutes) {
+    }
+
+    private TournamentDay() {
+    }
+
+    public static List<Event> schedule(Settings settings) {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        double goalsPerMinute = settings.goalsPerMatch() / settings.matchMinutes();
+        List<Event> events = new ArrayList<>();
+        for (int match = 0; match < settings.matches(); match++) {
+            int slot = match % settings.kickoffSlots();
+            double kickoff = slot * (double) settings.minutesBetweenSlots() + random.nextDouble() * 0.1;
+            double fullTime = kickoff + settings.matchMinutes() + random.nextInt(settings.maxStoppageMinutes() + 1);
+            events.add(new Event(kickoff, Kind.START, match, 0, 0));
+
+            int home = 0;
+            int away = 0;
+            //Inverse transform sampling of the exponential inter-arrival time
+            double minute = kickoff - Math.log(1 - random.nextDouble()) / goalsPerMinute;
+            while (minute < fullTime) {
+                if (random.nextBoolean()) {
+                    home++;
+                } else {
+                    away++;
+                }
+                events.add(new Event(minute, Kind.GOAL, match, home, away));
+                minute -= Math.log(1 - random.nextDouble()) / goalsPerMinute;
+            }
+            events.add(new Event(fullTime, Kind.FINISH, match, home, away));
+        }
+        events.sort(Comparator.comparingDouble(Event::minute).thenComparingInt(Event::match));
+        return events;
+    }
+
+    public static String homeTeam(int match) {
+        return "Home " + match;
+    }
+
+    public static String awayTeam(int match) {
+        return "Away " + match;
+    }
+}
@@ -0,0 +1,50 @@
+package football.load;
+
+import football.scoreboard.service.ReadWriteLockScoreboardEngine;
+import football.scoreboard.service.ScoreboardEngine;
+import football.scoreboard.service.ScoreboardService;
+import football.scoreboard.service.SingleWriterScoreboardEngine;
+import football.scoreboard.store.CopyOnWriteMatchStore;
+import football.scoreboard.store.OffHeapMatchStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Every engine under a few tournament days, from a World Cup group day to a weekend of amateur leagues, reported as
+ * throughput, latency percentiles and heap per scenario. The paced days show latency at a realistic write rate under
+ * heavy polling, the unpaced one the capacity. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class TournamentDayBenchmark {
+
+    static final LoadRunner.Scenario[] SCENARIOS = {
+            //Four group matches in two kickoff slots watched by many readers, a simulated minute takes 10 ms
+            new LoadRunner.Scenario("world-cup-group-day", new TournamentDay.Settings(42, 4, 2, 240, 90, 2.7, 8), 16, 10),
+            //All matches of a group stage in one day, a simulated minute takes 5 ms
+            new LoadRunner.Scenario("group-stage", new TournamentDay.Settings(42, 48, 6, 120, 90, 2.7, 8), 16, 5),
+            //Amateur leagues with many matches kicking off together, sent as fast as the engine accepts them
+            new LoadRunner.Scenario("league-weekend", new TournamentDay.Settings(42, 5_000, 12, 60, 90, 3.1, 5), 8, 0),
+    };
+
+    @Test
+    public void tournamentDays() throws InterruptedException {
+        Map<String, Supplier<ScoreboardEngine>> engines = new LinkedHashMap<>();
+        engines.put("cow", ScoreboardService::new);
+        engines.put("cow-offheap", () -> new ScoreboardService(new OffHeapMatchStore(4096)));
+        engines.put("single-writer", () -> new SingleWriterScoreboardEngine(new CopyOnWriteMatchStore()));
+        engines.put("read-write", () -> new ReadWriteLockScoreboardEngine(new CopyOnWriteMatchStore()));
+
+        LoadReport.printHeader();
+        for (LoadRunner.Scenario scenario : SCENARIOS) {
+            for (Map.Entry<String, Supplier<ScoreboardEngine>> engine : engines.entrySet()) {
+                try (ScoreboardEngine instance = engine.getValue().get()) {
+                    LoadRunner.run(scenario, engine.getKey(), ScoreboardClient.of(instance)).print();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package football.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.http.HttpClient;
+
+/**
+ * The scenarios of {@link TournamentDayBenchmark} sent over HTTP to the application on a random port, to see what
+ * the REST layer adds to the engine. The rate limit is raised so that it does not throttle the feed. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "scoreboard.rate-limit.capacity=1000000000",
+        "scoreboard.rate-limit.refill-per-second=1000000000"})
+public class TournamentDayRestBenchmark {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void tournamentDaysOverHttp() throws InterruptedException {
+        String baseUrl = "http://localhost:" + port + "/vk/scoreboard";
+        LoadReport.printHeader();
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            for (LoadRunner.Scenario scenario : TournamentDayBenchmark.SCENARIOS) {
+                LoadRunner.run(scenario, "rest", ScoreboardClient.of(http, baseUrl)).print();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package football.load;
+
+import football.load.TournamentDay.Event;
+import football.load.TournamentDay.Kind;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentDayTest {
+    private static final TournamentDay.Settings DAY = new TournamentDay.Settings(42, 2_000, 8, 120, 90, 2.7, 5);
+
+    @Test
+    public void testScheduleIsDeterministic() {
+        assertEquals(TournamentDay.schedule(DAY), TournamentDay.schedule(DAY), "The same seed should give the same day");
+        assertNotEquals(TournamentDay.schedule(DAY), TournamentDay.schedule(new TournamentDay.Settings(43, 2_000, 8, 120, 90, 2.7, 5)));
+    }
+
+    @Test
+    public void testScheduleShape() {
+        List<Event> events = TournamentDay.schedule(DAY);
+        Map<Integer, Event> last = new HashMap<>();
+        long goals = 0;
+        for (Event event : events) {
+            Event previous = last.put(event.match(), event);
+            switch (event.kind()) {
+                case START -> {
+                    assertNull(previous, "A match should start before anything else happens in it");
+                    //Kickoffs come in bursts at the start of each slot
+                    assertTrue(event.minute() % 120 < 1, "Kickoff outside its slot: " + event);
+                }
+                case GOAL -> {
+                    assertNotEquals(Kind.FINISH, previous.kind(), "No goals after the final whistle");
+                    assertEquals(previous.homeScore() + previous.awayScore() + 1, event.homeScore() + event.awayScore(),
+                            "Every goal should add one to the score");
+                    goals++;
+                }
+                case FINISH -> {
+                    assertNotEquals(Kind.FINISH, previous.kind());
+                    assertTrue(event.minute() - DAY.minutesBetweenSlots() * (event.match() % DAY.kickoffSlots()) >= 90,
+                            "A match should last at least 90 minutes");
+                }
+            }
+        }
+        assertEquals(DAY.matches(), last.size());
+        assertTrue(last.values().stream().allMatch(event -> event.kind() == Kind.FINISH), "Every match should be finished");
+
+        //Poisson goals: the mean per match is close to the rate, at most a few standard errors away
+        double mean = (double) goals / DAY.matches();
+        assertEquals(2.7 * 92.5 / 90, mean, 0.15, "Mean goals per match including stoppage time");
+    }
+
+    @Test
+    public void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(50_000_000, histogram.percentile(50), 50_000_000 * 0.01);
+        assertEquals(99_000_000, histogram.percentile(99), 99_000_000 * 0.01);
+        assertEquals(100_000_000, histogram.max());
+        assertEquals(100_000_000, histogram.percentile(100));
+    }
+
+    @Test
+    public void testRunnerReplaysTheWholeDay() throws InterruptedException {
+        TournamentDay.Settings day = new TournamentDay.Settings(7, 200, 4, 120, 90, 2.7, 5);
+        LoadRunner.Scenario scenario = new LoadRunner.Scenario("test-day", day, 2, 0);
+        try (ScoreboardService service = new ScoreboardService()) {
+            LoadReport report = LoadRunner.run(scenario, "cow", ScoreboardClient.of(service));
+
+            //Every event was accepted and every match finished
+            assertEquals(0, report.rejected());
+            assertEquals(TournamentDay.schedule(day).size(), report.writeCount());
+            assertEquals(200, report.writes().get(Kind.START).count());
+            assertTrue(service.getMatches().isEmpty(), "Board should be empty after the last final whistle");
+        }
+    }
+}
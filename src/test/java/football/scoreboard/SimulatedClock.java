@@ -0,0 +1,42 @@
+package football.scoreboard;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock that only moves when a test moves it.
+ */
+public class SimulatedClock extends Clock {
+    private volatile long millis = 1_700_000_000_000L;
+
+    public void advance(long deltaMillis) {
+        millis += deltaMillis;
+    }
+
+    public void advance(Duration delta) {
+        advance(delta.toMillis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+}
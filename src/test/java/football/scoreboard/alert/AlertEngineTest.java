@@ -0,0 +1,117 @@
+package football.scoreboard.alert;
+
+import football.scoreboard.SimulatedClock;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlertEngineTest {
+    private final ScoreboardService service = new ScoreboardService();
+    private final AlertFeed feed = new AlertFeed(8);
+
+    {
+        service.addListener(new AlertEngine(AlertRule.compileAll(
+                "high-scoring: total >= 5; leader: rank <= 1 and total > 0; away-lead: away - home >= 2"),
+                feed, new SimulatedClock()));
+    }
+
+    @Test
+    public void testRulesFireOnceWhenTheyBecomeTrue() {
+        service.startMatch(TEAM_A, TEAM_B);
+        service.updateScore(0, 3, 2);
+        //Already a high scoring match, a further goal does not fire again
+        service.updateScore(0, 4, 2);
+
+        //Rules that become true with the same change fire in the order they are configured
+        assertEquals(List.of("high-scoring", "leader"), rules(feed.since(0, 10)));
+        Alert alert = feed.since(0, 10).getFirst();
+        assertEquals(new Alert(1, 2, "high-scoring", service.getMatches().getFirst().getId(), TEAM_A, TEAM_B, 3, 2,
+                alert.firedAt()), alert);
+
+        //A correction below the threshold re-arms the rule
+        service.updateScore(0, 2, 2);
+        service.updateScore(0, 3, 2);
+        assertEquals(List.of("high-scoring"), rules(feed.since(2, 10)));
+    }
+
+    @Test
+    public void testRankRuleEvaluatesMatchesPushedAcrossTheRank() {
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.updateScore(0, 1, 0);
+        assertEquals(List.of("leader"), rules(feed.since(0, 10)));
+
+        //C-D takes the lead, A-B is pushed down without an alert of its own
+        service.updateScore(1, 0, 2);
+        assertEquals(List.of("leader", "away-lead"), rules(feed.since(1, 10)));
+        assertEquals(TEAM_C, feed.since(1, 10).getFirst().homeTeam());
+
+        //Finishing C-D gives the lead back to A-B
+        service.finishMatch(1);
+        assertEquals(List.of("leader"), rules(feed.since(3, 10)));
+        assertEquals(TEAM_A, feed.since(3, 10).getFirst().homeTeam());
+        service.updateScore(0, 2, 0);
+        assertEquals(List.of(), rules(feed.since(4, 10)), "A-B was already leading before this goal");
+
+        //Reset matches leave the ranking
+        service.reset();
+        service.startMatch(TEAM_E, TEAM_F);
+        service.updateScore(0, 1, 0);
+        assertEquals(List.of("leader"), rules(feed.since(4, 10)));
+    }
+
+    @Test
+    public void testTopThreeRuleFiresForMatchesPushedIn() {
+        AlertFeed topThreeFeed = new AlertFeed(8);
+        ScoreboardService scoreboard = new ScoreboardService();
+        scoreboard.addListener(new AlertEngine(AlertRule.compileAll("entered-top-3: total > 0 and rank <= 3"),
+                topThreeFeed, new SimulatedClock()));
+        //Kickoffs do not fire, although every new match ranks first among the goalless ones
+        for (String[] teams : new String[][]{{TEAM_A, TEAM_B}, {TEAM_C, TEAM_D}, {TEAM_E, TEAM_F}, {TEAM_G, TEAM_H}}) {
+            scoreboard.startMatch(teams[0], teams[1]);
+        }
+        assertTrue(topThreeFeed.since(0, 10).isEmpty());
+
+        //Board: A-B 3, G-H 2, C-D 2, E-F 1. The goals of A-B, C-D and G-H take them into the top three.
+        scoreboard.updateScore(0, 3, 0);
+        scoreboard.updateScore(1, 2, 0);
+        scoreboard.updateScore(3, 2, 0);
+        scoreboard.updateScore(2, 1, 0);
+        assertEquals(List.of(TEAM_A, TEAM_C, TEAM_G), homeTeams(topThreeFeed.since(0, 10)));
+        //E-F scored too late for the top three, it gets in when a match above it finishes
+        scoreboard.finishMatch(0);
+        assertEquals(List.of(TEAM_E), homeTeams(topThreeFeed.since(3, 10)));
+    }
+
+    @Test
+    public void testFeedIsBoundedAndNotifiesListeners() {
+        AtomicInteger notified = new AtomicInteger();
+        feed.addListener(notified::incrementAndGet);
+        service.startMatch(TEAM_A, TEAM_B);
+        for (int i = 0; i < 10; i++) {
+            //Alternate above and below the threshold so that every other update fires
+            service.updateScore(0, i % 2 == 0 ? 5 : 0, 0);
+        }
+
+        //Both the high scoring and the leader rule fire 5 times, the feed keeps the last 8 alerts
+        assertEquals(10, notified.get());
+        assertEquals(10, feed.getLastSequence());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), feed.since(0, 100).stream().map(Alert::sequence).toList());
+        assertEquals(List.of(9L, 10L), feed.since(8, 100).stream().map(Alert::sequence).toList());
+        assertEquals(1, feed.since(8, 1).size());
+        assertTrue(feed.since(10, 100).isEmpty());
+    }
+
+    private static List<String> homeTeams(List<Alert> alerts) {
+        return alerts.stream().map(Alert::homeTeam).toList();
+    }
+
+    private static List<String> rules(List<Alert> alerts) {
+        return alerts.stream().map(Alert::rule).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package football.scoreboard.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlertRuleTest {
+
+    @Test
+    public void testArithmeticConditions() {
+        AlertRule highScoring = AlertRule.compile("high-scoring", "total >= 5");
+        assertTrue(highScoring.test(3, 2, Integer.MAX_VALUE));
+        assertFalse(highScoring.test(2, 2, Integer.MAX_VALUE));
+
+        AlertRule awayLead = AlertRule.compile("away-lead", "away - home >= 2");
+        assertTrue(awayLead.test(0, 2, 1));
+        assertFalse(awayLead.test(1, 2, 1));
+
+        AlertRule combined = AlertRule.compile("combined", "home - away + 1 > 0 and total != 0");
+        assertTrue(combined.test(1, 1, 1));
+        assertFalse(combined.test(0, 0, 1));
+        assertEquals(0, combined.getRankLimit());
+    }
+
+    @Test
+    public void testRankConditions() {
+        AlertRule topThree = AlertRule.compile("top-3", "rank <= 3 and total > 0");
+        assertEquals(4, topThree.getRankLimit());
+        assertTrue(topThree.test(1, 0, 3));
+        assertFalse(topThree.test(1, 0, 4));
+        //Ranks below the limit are passed as MAX_VALUE
+        assertFalse(topThree.test(1, 0, Integer.MAX_VALUE));
+        assertFalse(topThree.test(0, 0, 1));
+    }
+
+    @Test
+    public void testCompileAll() {
+        List<AlertRule> rules = AlertRule.compileAll("high-scoring: total >= 5; ;top-3: RANK <= 3;");
+        assertEquals(List.of("high-scoring", "top-3"), rules.stream().map(AlertRule::getName).toList());
+        assertTrue(AlertRule.compileAll("").isEmpty());
+    }
+
+    @Test
+    public void testInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.compileAll("total >= 5"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.compile("missing-threshold", "total >="));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.compile("unknown-term", "goals >= 5"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.compile("rank-arithmetic", "rank + 1 <= 3"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.compile("dangling-operator", "home - >= 1"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.compile("bad-character", "home * 2 >= 1"));
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.compile("empty-condition", "total >= 1 and"));
+    }
+}
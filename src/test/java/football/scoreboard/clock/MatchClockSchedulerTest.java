@@ -0,0 +1,136 @@
+package football.scoreboard.clock;
+
+import football.scoreboard.SimulatedClock;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchClockSchedulerTest {
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    private final SimulatedClock clock = new SimulatedClock();
+    private final ScoreboardService service = new ScoreboardService();
+
+    @Test
+    public void testPhasesAndMinutes() {
+        MatchClockScheduler scheduler = scheduler(Duration.ZERO);
+        service.startMatch(TEAM_A, TEAM_B);
+        assertClock(scheduler, MatchPhase.FIRST_HALF, 1);
+
+        advanceMinutes(scheduler, 30);
+        assertClock(scheduler, MatchPhase.FIRST_HALF, 31);
+        advanceMinutes(scheduler, 15);
+        assertClock(scheduler, MatchPhase.HALF_TIME, 45);
+        advanceMinutes(scheduler, 15);
+        assertClock(scheduler, MatchPhase.SECOND_HALF, 46);
+
+        //A level score goes to full time when no extra time is configured
+        advanceMinutes(scheduler, 45);
+        assertClock(scheduler, MatchPhase.FULL_TIME, 90);
+    }
+
+    @Test
+    public void testExtraTimeOnlyWhenLevel() {
+        MatchClockScheduler scheduler = scheduler(Duration.ofMinutes(30));
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.updateScore(1, 2, 1);
+
+        advanceMinutes(scheduler, 105);
+        assertEquals(List.of(MatchPhase.EXTRA_TIME, MatchPhase.FULL_TIME), phases(scheduler));
+        advanceMinutes(scheduler, 10);
+        assertEquals(List.of(101, 90), minutes(scheduler));
+        //Extra time ends as the decided match reaches its auto-finish timeout
+        advanceMinutes(scheduler, 20);
+        assertClock(scheduler, MatchPhase.FULL_TIME, 120);
+    }
+
+    @Test
+    public void testStaleMatchIsFinishedAfterFullTime() {
+        MatchClockScheduler scheduler = scheduler(Duration.ZERO);
+        service.startMatch(TEAM_A, TEAM_B);
+        advanceMinutes(scheduler, 105);
+        assertClock(scheduler, MatchPhase.FULL_TIME, 90);
+
+        //A correction after full time restarts the timeout
+        advanceMinutes(scheduler, 20);
+        service.updateScore(0, 1, 0);
+        advanceMinutes(scheduler, 20);
+        assertEquals(1, service.getMatches().size(), "Corrected match should stay on the board");
+
+        advanceMinutes(scheduler, 10);
+        assertTrue(service.getMatches().isEmpty(), "Stale match should be finished");
+        assertEquals(0, scheduler.runningClocks());
+    }
+
+    @Test
+    public void testFinishedAndResetMatchesStopTheirClocks() {
+        MatchClockScheduler scheduler = scheduler(Duration.ZERO);
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.finishMatch(0);
+        assertEquals(1, scheduler.runningClocks());
+
+        service.reset();
+        assertEquals(0, scheduler.runningClocks());
+        //No timers are left behind for finished matches
+        service.startMatch(TEAM_E, TEAM_F);
+        advanceMinutes(scheduler, 200);
+        assertTrue(service.getMatches().isEmpty());
+    }
+
+    @Test
+    public void testManyMatchesFinishOnTime() {
+        MatchClockScheduler scheduler = scheduler(Duration.ofMinutes(30));
+        final int MATCHES = 5_000;
+        for (int i = 0; i < MATCHES; i++) {
+            service.startMatch("Home " + i, "Away " + i);
+            if (i % 2 == 0) {
+                service.updateScore(i, 1, 0);
+            }
+            //Kick-offs are spread over 100 minutes
+            if (i % 50 == 0) {
+                advanceMinutes(scheduler, 1);
+            }
+        }
+        assertEquals(MATCHES, scheduler.runningClocks());
+
+        //Every match is finished at most 150 minutes after kick-off plus the auto-finish timeout
+        advanceMinutes(scheduler, 150 + 30);
+        assertTrue(service.getMatches().isEmpty(), "All matches should be finished");
+        assertEquals(0, scheduler.runningClocks());
+    }
+
+    private MatchClockScheduler scheduler(Duration extraTime) {
+        MatchClockScheduler scheduler = new MatchClockScheduler(service, clock, new MatchClockScheduler.Settings(
+                Duration.ofMinutes(45), Duration.ofMinutes(15), extraTime, Duration.ofMinutes(30), Duration.ofSeconds(1)));
+        service.addListener(scheduler);
+        return scheduler;
+    }
+
+    private void advanceMinutes(MatchClockScheduler scheduler, int minutes) {
+        //Minute by minute, like a ticker that never falls behind
+        for (int i = 0; i < minutes; i++) {
+            clock.advance(MINUTE);
+            scheduler.advance();
+        }
+    }
+
+    private void assertClock(MatchClockScheduler scheduler, MatchPhase phase, int minute) {
+        assertEquals(List.of(phase), phases(scheduler));
+        assertEquals(List.of(minute), minutes(scheduler));
+    }
+
+    private List<MatchPhase> phases(MatchClockScheduler scheduler) {
+        return scheduler.clocksOf(service.getMatches()).stream().map(MatchClockView::phase).toList();
+    }
+
+    private List<Integer> minutes(MatchClockScheduler scheduler) {
+        return scheduler.clocksOf(service.getMatches()).stream().map(MatchClockView::minute).toList();
+    }
+}
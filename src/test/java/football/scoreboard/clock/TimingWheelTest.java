@@ -0,0 +1,107 @@
+package football.scoreboard.clock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+    private static final long START = 1_000_000;
+
+    @Test
+    public void testTasksRunAtTheirDeadlineInOrder() {
+        TimingWheel wheel = new TimingWheel(10, START);
+        List<String> ran = new ArrayList<>();
+        wheel.schedule(START + 35, () -> ran.add("b"));
+        wheel.schedule(START + 10, () -> ran.add("a"));
+        wheel.schedule(START + 500, () -> ran.add("c"));
+
+        //Nothing is due before the first deadline
+        wheel.advanceTo(START + 9);
+        assertTrue(ran.isEmpty());
+        wheel.advanceTo(START + 39);
+        assertEquals(List.of("a"), ran, "A task never runs before its deadline");
+        wheel.advanceTo(START + 40);
+        assertEquals(List.of("a", "b"), ran);
+        wheel.advanceTo(START + 10_000);
+        assertEquals(List.of("a", "b", "c"), ran);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRun() {
+        TimingWheel wheel = new TimingWheel(10, START);
+        List<String> ran = new ArrayList<>();
+        TimingWheel.Timer timer = wheel.schedule(START + 100, () -> ran.add("cancelled"));
+        wheel.schedule(START + 100, () -> ran.add("kept"));
+
+        assertTrue(wheel.cancel(timer));
+        assertFalse(wheel.cancel(timer), "A timer can only be cancelled once");
+        wheel.advanceTo(START + 1_000);
+        assertEquals(List.of("kept"), ran);
+    }
+
+    @Test
+    public void testFailingTaskDoesNotDropOtherTasks() {
+        TimingWheel wheel = new TimingWheel(10, START);
+        List<String> ran = new ArrayList<>();
+        wheel.schedule(START + 10, () -> ran.add("before"));
+        wheel.schedule(START + 20, () -> {
+            throw new IllegalStateException("task failure");
+        });
+        wheel.schedule(START + 30, () -> ran.add("after"));
+
+        //All three expire in one advance, the failure is logged and the batch goes on
+        wheel.advanceTo(START + 100);
+        assertEquals(List.of("before", "after"), ran);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    public void testFarDeadlinesCascadeThroughAllLevels() {
+        //With 1 ms ticks the top level covers 64^4 ms, about 4.6 hours, the last deadline is beyond it
+        TimingWheel wheel = new TimingWheel(1, START);
+        SplittableRandom random = new SplittableRandom(7);
+        long[] deadlines = new long[50_000];
+        long[] ranAt = new long[deadlines.length];
+        long[] now = {START};
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = START + 1 + random.nextLong(20_000_000L);
+            final int task = i;
+            wheel.schedule(deadlines[i], () -> ranAt[task] = now[0]);
+        }
+
+        //Advance in uneven steps, every task has to run in the step that crosses its deadline
+        while (wheel.pending() > 0) {
+            long previous = now[0];
+            now[0] += 1 + random.nextInt(50_000);
+            wheel.advanceTo(now[0]);
+            for (int i = 0; i < deadlines.length; i++) {
+                if (deadlines[i] > previous && deadlines[i] <= now[0]) {
+                    assertEquals(now[0], ranAt[i], "Task " + i + " due at " + deadlines[i]);
+                }
+            }
+        }
+        for (long ran : ranAt) {
+            assertNotEquals(0, ran);
+        }
+    }
+
+    @Test
+    public void testTaskMayScheduleAnotherTask() {
+        TimingWheel wheel = new TimingWheel(10, START);
+        List<Long> ran = new ArrayList<>();
+        wheel.schedule(START + 10, () -> {
+            ran.add(1L);
+            wheel.schedule(START + 20, () -> ran.add(2L));
+        });
+
+        wheel.advanceTo(START + 10);
+        assertEquals(List.of(1L), ran);
+        wheel.advanceTo(START + 20);
+        assertEquals(List.of(1L, 2L), ran);
+    }
+}
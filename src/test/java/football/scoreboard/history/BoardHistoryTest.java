@@ -0,0 +1,136 @@
+package football.scoreboard.history;
+
+import football.scoreboard.SimulatedClock;
+import football.scoreboard.SummaryOrder;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static football.scoreboard.service.ScoreboardEngine.VERSION_IS_NOT_AVAILABLE;
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardHistoryTest {
+
+    @Test
+    public void testBoardAsOfVersion() {
+        ScoreboardService service = serviceWithHistory(new BoardHistory(16, 4, new SimulatedClock()));
+
+        //Versions 1 to 5: start, update, start, update, finish
+        service.startMatch(TEAM_A, TEAM_B);
+        service.updateScore(0, 1, 0);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.updateScore(1, 2, 2);
+        service.finishMatch(0);
+        assertEquals(5, service.getVersion());
+
+        assertEquals(List.of(), summaryAt(service, 0));
+        assertEquals(List.of("1. " + TEAM_A + " 1 - 0 " + TEAM_B), summaryAt(service, 2));
+        assertEquals(List.of("1. " + TEAM_C + " 2 - 2 " + TEAM_D, "2. " + TEAM_A + " 1 - 0 " + TEAM_B), summaryAt(service, 4));
+        assertEquals(service.getFormatedSortedSummary(), summaryAt(service, 5));
+
+        //Versions that do not exist yet are rejected
+        assertEquals(VERSION_IS_NOT_AVAILABLE, assertThrows(IllegalArgumentException.class, () -> service.getSortedMatches(6)).getMessage());
+    }
+
+    @Test
+    public void testEvictedVersionsAreNotAvailable() {
+        BoardHistory history = new BoardHistory(8, 4, new SimulatedClock());
+        ScoreboardService service = serviceWithHistory(history);
+        service.startMatch(TEAM_A, TEAM_B);
+        for (int i = 1; i <= 20; i++) {
+            service.updateScore(0, i, 0);
+        }
+
+        //Only the last 8 deltas are kept, the oldest version is the first checkpoint they build on
+        assertEquals(21, history.getLatestVersion());
+        long oldest = history.getOldestVersion();
+        assertEquals(16, oldest);
+        assertEquals(List.of("1. " + TEAM_A + " 15 - 0 " + TEAM_B), summaryAt(service, oldest));
+        assertEquals(List.of("1. " + TEAM_A + " 20 - 0 " + TEAM_B), summaryAt(service, 21));
+        assertThrows(IllegalArgumentException.class, () -> service.getSortedMatches(oldest - 1));
+        assertThrows(IllegalArgumentException.class, () -> service.getSortedMatches(1));
+    }
+
+    @Test
+    public void testBoardAsOfMoment() {
+        SimulatedClock clock = new SimulatedClock();
+        ScoreboardService service = serviceWithHistory(new BoardHistory(16, 4, clock));
+        Instant beforeFirstChange = clock.instant();
+
+        clock.advance(1_000);
+        service.startMatch(TEAM_A, TEAM_B);
+        clock.advance(1_000);
+        service.updateScore(0, 1, 0);
+        Instant goal = clock.instant();
+        clock.advance(1_000);
+        //The goal is overturned
+        service.updateScore(0, 0, 0);
+
+        assertEquals(List.of(), SummaryOrder.format(service.getSortedMatches(beforeFirstChange)));
+        assertEquals(List.of("1. " + TEAM_A + " 1 - 0 " + TEAM_B), SummaryOrder.format(service.getSortedMatches(goal)));
+        assertEquals(List.of("1. " + TEAM_A + " 1 - 0 " + TEAM_B), SummaryOrder.format(service.getSortedMatches(goal.plusMillis(999))));
+        assertEquals(List.of("1. " + TEAM_A + " 0 - 0 " + TEAM_B), SummaryOrder.format(service.getSortedMatches(clock.instant())));
+    }
+
+    @Test
+    public void testResetAndAttachToRunningBoard() {
+        ScoreboardService service = new ScoreboardService();
+        //Without a history no past board is available
+        assertEquals(VERSION_IS_NOT_AVAILABLE, assertThrows(IllegalArgumentException.class, () -> service.getSortedMatches(0)).getMessage());
+
+        //Attach to a board that already has a scored match
+        service.startMatch(TEAM_A, TEAM_B);
+        service.updateScore(0, 2, 1);
+        service.attachHistory(new BoardHistory(16, 4, new SimulatedClock()));
+        service.reset();
+        service.startMatch(TEAM_C, TEAM_D);
+
+        assertEquals(List.of("1. " + TEAM_A + " 2 - 1 " + TEAM_B), summaryAt(service, 2));
+        assertEquals(List.of(), summaryAt(service, 3));
+        assertEquals(List.of("1. " + TEAM_C + " 0 - 0 " + TEAM_D), summaryAt(service, 4));
+        assertThrows(IllegalArgumentException.class, () -> service.getSortedMatches(1));
+    }
+
+    @Test
+    public void testRebuiltBoardsMatchEveryRecordedBoard() {
+        ScoreboardService service = serviceWithHistory(new BoardHistory(256, 16, new SimulatedClock()));
+        SplittableRandom random = new SplittableRandom(42);
+        List<List<String>> boards = new ArrayList<>();
+        boards.add(service.getFormatedSortedSummary());
+
+        //Record the summary after every change, then compare it with the rebuilt board of that version
+        while (boards.size() <= 200) {
+            try {
+                switch (random.nextInt(20)) {
+                    case 0, 1, 2, 3 -> service.startMatch("Home " + random.nextInt(12), "Away " + random.nextInt(12));
+                    case 4, 5 -> service.finishMatch(random.nextInt(6));
+                    case 6 -> service.reset();
+                    default -> service.updateScore(random.nextInt(6), random.nextInt(5), random.nextInt(5));
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                //Rejected writes do not change the version
+            }
+            boards.add(service.getFormatedSortedSummary());
+            boards.subList((int) service.getVersion() + 1, boards.size()).clear();
+        }
+
+        for (int version = 0; version < boards.size(); version++) {
+            assertEquals(boards.get(version), summaryAt(service, version), "Board at version " + version);
+        }
+    }
+
+    private static ScoreboardService serviceWithHistory(BoardHistory history) {
+        ScoreboardService service = new ScoreboardService();
+        service.attachHistory(history);
+        return service;
+    }
+
+    private static List<String> summaryAt(ScoreboardService service, long version) {
+        return SummaryOrder.format(service.getSortedMatches(version));
+    }
+}
@@ -0,0 +1,122 @@
+package football.scoreboard.service;
+
+import football.scoreboard.history.BoardHistory;
+import football.scoreboard.store.CopyOnWriteMatchStore;
+import football.scoreboard.store.OffHeapMatchStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * Throughput of every engine for a few load profiles and thread counts, printed as a matrix, to pick
+ * {@code scoreboard.engine} for a given load. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class ScoreboardEngineBenchmark {
+    private static final int BOARD_SIZE = 64;
+    private static final long DURATION_MILLIS = 1_000;
+    private static final int[] THREADS = {1, 4, 16};
+
+    //Percentage of score updates, structural writes (a start followed by a finish) and summary reads
+    private record Profile(String name, int updates, int structural, int reads) {
+    }
+
+    private static final Profile[] PROFILES = {
+            new Profile("read-heavy", 10, 1, 89),
+            new Profile("match-day", 60, 5, 35),
+            new Profile("write-heavy", 90, 10, 0),
+    };
+
+    @Test
+    public void engineMatrix() throws InterruptedException {
+        Map<String, Supplier<ScoreboardEngine>> engines = new LinkedHashMap<>();
+        engines.put("cow", ScoreboardService::new);
+        engines.put("cow-offheap", () -> new ScoreboardService(new OffHeapMatchStore(4096)));
+        engines.put("single-writer", () -> new SingleWriterScoreboardEngine(new CopyOnWriteMatchStore()));
+        engines.put("read-write", () -> new ReadWriteLockScoreboardEngine(new CopyOnWriteMatchStore()));
+        //The default configuration has listeners, history at the least, so every change is also delivered
+        for (Map.Entry<String, Supplier<ScoreboardEngine>> bare : List.copyOf(engines.entrySet())) {
+            engines.put(bare.getKey() + "+history", () -> withHistory(bare.getValue().get()));
+        }
+
+        System.out.printf("%-22s %-12s", "engine", "profile");
+        for (int threads : THREADS) {
+            System.out.printf(" %14s", threads + " thr (ops/s)");
+        }
+        System.out.println();
+        for (Map.Entry<String, Supplier<ScoreboardEngine>> engine : engines.entrySet()) {
+            for (Profile profile : PROFILES) {
+                System.out.printf("%-22s %-12s", engine.getKey(), profile.name());
+                for (int threads : THREADS) {
+                    System.out.printf(" %14d", throughput(engine.getValue(), profile, threads));
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    private static ScoreboardEngine withHistory(ScoreboardEngine engine) {
+        ((AbstractScoreboardEngine) engine).attachHistory(new BoardHistory(4096, 64, Clock.systemUTC()));
+        return engine;
+    }
+
+    private static long throughput(Supplier<ScoreboardEngine> factory, Profile profile, int threads) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        try (ScoreboardEngine engine = factory.get();
+             ExecutorService executor = newFixedThreadPool(threads)) {
+            for (int i = 0; i < BOARD_SIZE; i++) {
+                engine.startMatch("Home " + i, "Away " + i);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            for (int t = 0; t < threads; t++) {
+                final long seed = t;
+                executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    startLatch.await();
+                    long done = 0;
+                    while (System.nanoTime() < deadline) {
+                        run(engine, profile, random);
+                        done++;
+                    }
+                    operations.add(done);
+                    return null;
+                });
+            }
+            startLatch.countDown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return operations.sum() * 1_000 / DURATION_MILLIS;
+    }
+
+    private static void run(ScoreboardEngine engine, Profile profile, SplittableRandom random) {
+        int operation = random.nextInt(100);
+        try {
+            if (operation < profile.updates()) {
+                engine.updateScore(random.nextInt(BOARD_SIZE), random.nextInt(10), random.nextInt(10));
+            } else if (operation < profile.updates() + profile.structural()) {
+                //Start before finishing, so that a start rejected as a duplicate does not shrink the board
+                int team = random.nextInt(BOARD_SIZE * 4);
+                engine.startMatch("Home " + team, "Away " + team);
+                engine.finishMatch(random.nextInt(BOARD_SIZE));
+            } else {
+                engine.getFormatedSortedSummary();
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            //Another thread finished or started the same match first, still one operation
+        }
+    }
+}
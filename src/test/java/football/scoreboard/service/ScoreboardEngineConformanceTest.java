@@ -0,0 +1,399 @@
+package football.scoreboard.service;
+
+import football.scoreboard.Match;
+import football.scoreboard.SummaryOrder;
+import football.scoreboard.history.BoardHistory;
+import football.scoreboard.store.CopyOnWriteMatchStore;
+import football.scoreboard.store.OffHeapMatchStore;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static football.scoreboard.service.ScoreboardEngine.*;
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link ScoreboardEngine} has to share, run against each engine and store combination.
+ */
+public class ScoreboardEngineConformanceTest {
+
+    static Stream<Arguments> engines() {
+        return Stream.of(
+                Arguments.of("cow", (Supplier<ScoreboardEngine>) ScoreboardService::new),
+                Arguments.of("cow-offheap", (Supplier<ScoreboardEngine>) () -> new ScoreboardService(new OffHeapMatchStore(4))),
+                Arguments.of("single-writer", (Supplier<ScoreboardEngine>) () -> new SingleWriterScoreboardEngine(new CopyOnWriteMatchStore())),
+                Arguments.of("read-write", (Supplier<ScoreboardEngine>) () -> new ReadWriteLockScoreboardEngine(new CopyOnWriteMatchStore())));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testStartUpdateAndSummary(String name, Supplier<ScoreboardEngine> factory) {
+        try (ScoreboardEngine engine = factory.get()) {
+            //Start three matches and update their scores
+            engine.startMatch(TEAM_A, TEAM_B);
+            engine.startMatch(TEAM_C, TEAM_D);
+            engine.startMatch(TEAM_E, TEAM_F);
+            engine.updateScore(0, 1, 1);
+            engine.updateScore(1, 3, 0);
+            engine.updateScore(2, 0, 2);
+
+            //Higher total first, the most recently started first on equal totals
+            assertEquals(List.of("1. " + TEAM_C + " 3 - 0 " + TEAM_D, "2. " + TEAM_E + " 0 - 2 " + TEAM_F, "3. " + TEAM_A + " 1 - 1 " + TEAM_B),
+                    engine.getFormatedSortedSummary());
+            assertEquals(TEAM_C, engine.getSortedMatches().getFirst().getHomeTeam());
+            assertEquals(List.of(TEAM_A, TEAM_C, TEAM_E), engine.getMatches().stream().map(Match::getHomeTeam).toList(),
+                    "Matches should be listed in start order");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testValidation(String name, Supplier<ScoreboardEngine> factory) {
+        try (ScoreboardEngine engine = factory.get()) {
+            engine.startMatch(TEAM_A, TEAM_B);
+
+            assertEquals(ALREADY_EXISTS, assertThrows(IllegalArgumentException.class, () -> engine.startMatch(TEAM_A, TEAM_C)).getMessage());
+            assertEquals(CANNOT_BE_NULL_OR_EMPTY, assertThrows(IllegalArgumentException.class, () -> engine.startMatch("", TEAM_C)).getMessage());
+            assertEquals(CANNOT_BE_NEGATIVE, assertThrows(IllegalArgumentException.class, () -> engine.updateScore(0, -1, 0)).getMessage());
+            assertEquals(MATCH_INDEX_IS_OUT_OF_RANGE, assertThrows(IndexOutOfBoundsException.class, () -> engine.updateScore(1, 0, 0)).getMessage());
+            assertEquals(MATCH_INDEX_IS_OUT_OF_RANGE, assertThrows(IndexOutOfBoundsException.class, () -> engine.finishMatch(-1)).getMessage());
+            assertEquals(MATCH_INDEX_IS_OUT_OF_RANGE, assertThrows(IndexOutOfBoundsException.class, () -> engine.validateScoreUpdate(5, 0, 0)).getMessage());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testFinishResetAndTeamLookup(String name, Supplier<ScoreboardEngine> factory) {
+        try (ScoreboardEngine engine = factory.get()) {
+            engine.startMatch("Côte d'Ivoire", TEAM_B);
+            engine.startMatch(TEAM_C, TEAM_D);
+            assertEquals(1, engine.findMatchesByTeam("cote").size(), "Match should be found by normalized name");
+
+            //Finish the first match, the second one moves to index 0
+            engine.finishMatch(0);
+            assertTrue(engine.findMatchesByTeam("cote").isEmpty(), "Finished match should not be found");
+            engine.updateScore(0, 2, 1);
+            assertEquals(List.of("1. " + TEAM_C + " 2 - 1 " + TEAM_D), engine.getFormatedSortedSummary());
+
+            engine.reset();
+            assertTrue(engine.getMatches().isEmpty(), "Board should be empty after reset");
+            assertTrue(engine.findMatchesByTeam(TEAM_C).isEmpty(), "Index should be empty after reset");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testTeamLookupAndDuplicatesGoByExactName(String name, Supplier<ScoreboardEngine> factory) {
+        try (ScoreboardEngine engine = factory.get()) {
+            engine.startMatch("Spain", TEAM_B);
+            engine.startMatch(TEAM_C, TEAM_D);
+            engine.startMatch("Spain B", TEAM_F);
+            engine.startMatch("?!", "...");
+
+            //A name that only starts like a playing team is not a duplicate, the exact name is, whatever its side
+            assertEquals(ALREADY_EXISTS, assertThrows(IllegalArgumentException.class, () -> engine.startMatch("Spain", TEAM_E)).getMessage());
+            assertEquals(ALREADY_EXISTS, assertThrows(IllegalArgumentException.class, () -> engine.startMatch(TEAM_E, TEAM_F)).getMessage());
+            assertEquals(ALREADY_EXISTS, assertThrows(IllegalArgumentException.class, () -> engine.startMatch("?!", TEAM_E)).getMessage());
+
+            engine.finishMatch(1);
+            assertEquals(List.of("Spain", "Spain B"), engine.findMatchesByTeam("spa").stream().map(Match::getHomeTeam).toList(),
+                    "Matches should be found in start order");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testFinishMatchById(String name, Supplier<ScoreboardEngine> factory) {
+        try (ScoreboardEngine engine = factory.get()) {
+            engine.startMatch(TEAM_A, TEAM_B);
+            engine.startMatch(TEAM_C, TEAM_D);
+            engine.startMatch(TEAM_E, TEAM_F);
+            long id = engine.getMatches().get(2).getId();
+
+            //A finish by index shifts the board, the id still finds the same match
+            engine.finishMatch(0);
+            assertTrue(engine.finishMatchById(id));
+            assertFalse(engine.finishMatchById(id), "A finished match cannot be finished again");
+            assertEquals(List.of(TEAM_C), engine.getMatches().stream().map(Match::getHomeTeam).toList());
+            assertTrue(engine.findMatchesByTeam(TEAM_E).isEmpty(), "Finished match should not be found");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testUpdateScoreById(String name, Supplier<ScoreboardEngine> factory) {
+        try (ScoreboardEngine engine = factory.get()) {
+            engine.startMatch(TEAM_A, TEAM_B);
+            engine.startMatch(TEAM_C, TEAM_D);
+            long id = engine.getMatch(1).getId();
+
+            //A finish by index shifts the board, the id still finds the same match
+            engine.finishMatch(0);
+            assertTrue(engine.updateScoreById(id, 2, 1));
+            assertEquals(3, engine.getMatch(0).getTotalScore());
+            assertThrows(IllegalArgumentException.class, () -> engine.updateScoreById(id, -1, 0));
+
+            engine.finishMatch(0);
+            assertFalse(engine.updateScoreById(id, 3, 1), "A finished match cannot be updated");
+            assertThrows(IndexOutOfBoundsException.class, () -> engine.getMatch(0));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testFailingListenerDoesNotStopOthers(String name, Supplier<ScoreboardEngine> factory) {
+        try (ScoreboardEngine engine = factory.get()) {
+            //The first listener fails on every change, the second one records the versions it gets
+            List<Long> versions = new ArrayList<>();
+            engine.addListener(new ScoreboardListener() {
+                @Override
+                public void onMatchStarted(long version, Match match) {
+                    throw new IllegalStateException("listener failure");
+                }
+
+                @Override
+                public void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+                    throw new IllegalStateException("listener failure");
+                }
+            });
+            engine.addListener(new ScoreboardListener() {
+                @Override
+                public void onMatchStarted(long version, Match match) {
+                    versions.add(version);
+                }
+
+                @Override
+                public void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+                    versions.add(version);
+                }
+            });
+
+            //The writes succeed and every change reaches the second listener
+            engine.startMatch(TEAM_A, TEAM_B);
+            engine.updateScore(0, 1, 0);
+            assertEquals(List.of(1L, 2L), versions);
+            assertEquals(List.of("1. " + TEAM_A + " 1 - 0 " + TEAM_B), engine.getFormatedSortedSummary());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testConcurrentOperations(String name, Supplier<ScoreboardEngine> factory) throws Exception {
+        final int NUM_THREADS = 8;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        try (ScoreboardEngine engine = factory.get();
+             ExecutorService executor = newFixedThreadPool(NUM_THREADS)) {
+            //Every thread runs a random mix of all operations
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < NUM_THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    startLatch.await();
+                    for (int j = 0; j < 2_000; j++) {
+                        try {
+                            switch (random.nextInt(4)) {
+                                case 0 -> engine.startMatch("Home " + random.nextInt(20), "Away " + random.nextInt(20));
+                                case 1 -> engine.updateScore(random.nextInt(10), random.nextInt(10), random.nextInt(10));
+                                case 2 -> engine.finishMatch(random.nextInt(10));
+                                default -> engine.getFormatedSortedSummary();
+                            }
+                        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                            //Expected when another thread got there first
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            //Any other exception in a worker fails the test
+            for (Future<?> worker : workers) {
+                worker.get(1, TimeUnit.MINUTES);
+            }
+
+            //No team may be on the board twice and the summary covers every match
+            Set<String> homeTeams = new HashSet<>();
+            for (Match match : engine.getMatches()) {
+                assertTrue(homeTeams.add(match.getHomeTeam()), "Duplicate home team: " + match.getHomeTeam());
+            }
+            assertEquals(engine.getMatches().size(), engine.getFormatedSortedSummary().size());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testListenersSeeChangesInOrderUnderConcurrentWrites(String name, Supplier<ScoreboardEngine> factory) throws Exception {
+        final int NUM_THREADS = 8;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ChangeChecker checker = new ChangeChecker();
+        try (ScoreboardEngine engine = factory.get();
+             ExecutorService executor = newFixedThreadPool(NUM_THREADS)) {
+            engine.addListener(checker);
+            for (int i = 0; i < 10; i++) {
+                engine.startMatch("Home " + i, "Away " + i);
+            }
+            //Updates of the same matches race with starts and finishes that shift the board
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < NUM_THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    startLatch.await();
+                    for (int j = 0; j < 2_000; j++) {
+                        try {
+                            if (random.nextInt(10) == 0) {
+                                engine.startMatch("Home " + random.nextInt(20), "Away " + random.nextInt(20));
+                                engine.finishMatch(random.nextInt(10));
+                            } else {
+                                engine.updateScore(random.nextInt(10), random.nextInt(10), random.nextInt(10));
+                            }
+                        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                            //Expected when another thread got there first
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(1, TimeUnit.MINUTES);
+            }
+
+            //Every version arrived once and in order, and each update continued from the scores of the previous one
+            assertEquals(List.of(), checker.violations);
+            assertEquals(engine.getVersion(), checker.lastVersion);
+            for (Match match : engine.getMatches()) {
+                assertEquals(Integer.valueOf(match.getHomeScore() * 1000 + match.getAwayScore()), checker.scores.get(match.getId()));
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testHistoryUnderConcurrentWrites(String name, Supplier<ScoreboardEngine> factory) throws Exception {
+        final int NUM_THREADS = 8;
+        try (ScoreboardEngine engine = factory.get();
+             ExecutorService executor = newFixedThreadPool(NUM_THREADS)) {
+            ((AbstractScoreboardEngine) engine).attachHistory(new BoardHistory(1 << 16, 64, Clock.systemUTC()));
+            for (int i = 0; i < 10; i++) {
+                engine.startMatch("Home " + i, "Away " + i);
+            }
+            //Concurrent updates of the same matches must reach the history in the order they were applied
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < NUM_THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < 2_000; j++) {
+                        engine.updateScore(random.nextInt(10), random.nextInt(10), random.nextInt(10));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(1, TimeUnit.MINUTES);
+            }
+
+            assertEquals(10 + NUM_THREADS * 2_000, engine.getVersion());
+            assertEquals(engine.getFormatedSortedSummary(), SummaryOrder.format(engine.getSortedMatches(engine.getVersion())));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testListenerAddedWhileUpdatesRun(String name, Supplier<ScoreboardEngine> factory) throws Exception {
+        final int NUM_THREADS = 8;
+        //Shut down rather than closed, so that writers stuck on a lost version fail the test instead of hanging it
+        ExecutorService executor = newFixedThreadPool(NUM_THREADS);
+        try (ScoreboardEngine engine = factory.get()) {
+            for (int i = 0; i < 10; i++) {
+                engine.startMatch("Home " + i, "Away " + i);
+            }
+            CountDownLatch running = new CountDownLatch(NUM_THREADS);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < NUM_THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < 20_000; j++) {
+                        if (j == 100) {
+                            running.countDown();
+                        }
+                        engine.updateScore(random.nextInt(10), random.nextInt(10), random.nextInt(10));
+                    }
+                    return null;
+                }));
+            }
+
+            //Updates that found no listener must not leave a version the publisher waits for
+            assertTrue(running.await(1, TimeUnit.MINUTES));
+            List<Long> versions = new ArrayList<>();
+            engine.addListener(new ScoreboardListener() {
+                @Override
+                public void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+                    versions.add(version);
+                }
+            });
+            for (Future<?> worker : workers) {
+                worker.get(1, TimeUnit.MINUTES);
+            }
+
+            assertEquals(10 + NUM_THREADS * 20_000, engine.getVersion());
+            assertFalse(versions.isEmpty(), "Updates after the listener was added should reach it");
+            assertEquals(engine.getVersion(), (long) versions.getLast());
+            assertEquals(versions.getLast() - versions.getFirst() + 1, versions.size(), "No version should be skipped");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //Called one change at a time, so it needs no synchronization of its own
+    private static final class ChangeChecker implements ScoreboardListener {
+        private final List<String> violations = new ArrayList<>();
+        private final Map<Long, Integer> scores = new HashMap<>();
+        private long lastVersion;
+
+        @Override
+        public void onMatchStarted(long version, Match match) {
+            checkVersion(version);
+            scores.put(match.getId(), 0);
+        }
+
+        @Override
+        public void onScoreUpdated(long version, Match match, int previousHomeScore, int previousAwayScore) {
+            checkVersion(version);
+            Integer previous = scores.put(match.getId(), match.getHomeScore() * 1000 + match.getAwayScore());
+            if (previous == null || previous != previousHomeScore * 1000 + previousAwayScore) {
+                violations.add("Update " + version + " of match " + match.getId() + " does not follow " + previous);
+            }
+        }
+
+        @Override
+        public void onMatchFinished(long version, Match match) {
+            checkVersion(version);
+            if (scores.remove(match.getId()) == null) {
+                violations.add("Finish " + version + " of a match that was not live");
+            }
+        }
+
+        private void checkVersion(long version) {
+            if (version != lastVersion + 1) {
+                violations.add("Version " + version + " after " + lastVersion);
+            }
+            lastVersion = version;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package football.scoreboard.service;
+
+import football.scoreboard.Match;
+import football.scoreboard.history.BoardHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static football.scoreboard.service.ScoreboardEngine.*;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency stress suite for every {@link ScoreboardEngine} and store, bare and with a board history attached as in
+ * the default configuration, so that every concurrency optimization has to pass it.
+ * <p>
+ * Every test runs many rounds of racing threads and then checks invariants that any linearizable execution must
+ * keep: no duplicate teams, no index errors other than the documented one, no torn scores and a summary that is
+ * always numbered and sorted. Run with {@code mvn test -Pstress}.
+ */
+@Tag("stress")
+public class ScoreboardServiceStressTest {
+    private static final int NUM_THREADS = 8;
+    private static final int ROUNDS = 200;
+    private static final int OPERATIONS_PER_THREAD = 500;
+    private static final Pattern SUMMARY_LINE = Pattern.compile("(\\d+)\\. (.+) (\\d+) - (\\d+) (.+)");
+    private ScoreboardEngine scoreboardService;
+
+    static Stream<Arguments> engines() {
+        List<Arguments> engines = new ArrayList<>();
+        ScoreboardEngineConformanceTest.engines().forEach(engine -> {
+            String name = (String) engine.get()[0];
+            @SuppressWarnings("unchecked")
+            Supplier<ScoreboardEngine> factory = (Supplier<ScoreboardEngine>) engine.get()[1];
+            engines.add(engine);
+            engines.add(Arguments.of(name + "+history", (Supplier<ScoreboardEngine>) () -> {
+                AbstractScoreboardEngine withHistory = (AbstractScoreboardEngine) factory.get();
+                withHistory.attachHistory(new BoardHistory(4096, 64, Clock.systemUTC()));
+                return withHistory;
+            }));
+        });
+        return engines.stream();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (scoreboardService != null) {
+            scoreboardService.close();
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testConcurrentStartMatchesNeverDuplicateTeams(String name, Supplier<ScoreboardEngine> factory) throws InterruptedException {
+        scoreboardService = factory.get();
+        for (int round = 0; round < ROUNDS; round++) {
+            scoreboardService.reset();
+            // Every thread tries to start the same overlapping fixtures
+            runConcurrently(thread -> {
+                for (int i = 0; i < 10; i++) {
+                    try {
+                        scoreboardService.startMatch("Team " + i, "Team " + ((i + thread) % 10));
+                    } catch (IllegalArgumentException e) {
+                        assertEquals(ALREADY_EXISTS, e.getMessage());
+                    }
+                }
+            });
+
+            // No home team and no away team may appear twice
+            assertNoDuplicateTeams(scoreboardService.getMatches());
+            assertTeamIndexConsistent();
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testConcurrentFinishMatchesRemoveEachMatchOnce(String name, Supplier<ScoreboardEngine> factory) throws InterruptedException {
+        scoreboardService = factory.get();
+        for (int round = 0; round < ROUNDS; round++) {
+            scoreboardService.reset();
+            for (int i = 0; i < NUM_THREADS * 2; i++) {
+                scoreboardService.startMatch("Home " + i, "Away " + i);
+            }
+
+            // Every thread finishes matches at the head of the board until it is empty
+            Queue<Integer> finished = new ConcurrentLinkedQueue<>();
+            runConcurrently(thread -> {
+                while (true) {
+                    try {
+                        scoreboardService.finishMatch(0);
+                        finished.add(thread);
+                    } catch (IndexOutOfBoundsException e) {
+                        assertEquals(MATCH_INDEX_IS_OUT_OF_RANGE, e.getMessage());
+                        return;
+                    }
+                }
+            });
+
+            // Every started match has been finished exactly once
+            assertEquals(NUM_THREADS * 2, finished.size(), "Each match should be finished exactly once");
+            assertTrue(scoreboardService.getMatches().isEmpty(), "Board should be empty");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testConcurrentScoreUpdatesAreNeverTorn(String name, Supplier<ScoreboardEngine> factory) throws InterruptedException {
+        scoreboardService = factory.get();
+        scoreboardService.startMatch("Team A", "Team B");
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // Writers only ever set equal scores, so any summary with different scores shows a torn update
+        runConcurrently(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD * 10 && running.get(); i++) {
+                if (thread % 2 == 0) {
+                    int goals = random.nextInt(100);
+                    scoreboardService.updateScore(0, goals, goals);
+                } else {
+                    for (String line : scoreboardService.getFormatedSortedSummary()) {
+                        Matcher matcher = parse(line);
+                        if (!matcher.group(3).equals(matcher.group(4))) {
+                            running.set(false);
+                            fail("Torn score in summary: " + line);
+                        }
+                    }
+                    Match match = scoreboardService.getMatches().getFirst();
+                    assertEquals(0, match.getTotalScore() % 2, "Torn total score: " + match.getTotalScore());
+                }
+            }
+        });
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    public void testMixedOperationsKeepBoardConsistent(String name, Supplier<ScoreboardEngine> factory) throws InterruptedException {
+        scoreboardService = factory.get();
+        for (int round = 0; round < ROUNDS / 10; round++) {
+            scoreboardService.reset();
+
+            // Every thread runs a random mix of all public operations
+            runConcurrently(thread -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int operation = random.nextInt(100);
+                    try {
+                        if (operation < 25) {
+                            scoreboardService.startMatch("Home " + random.nextInt(20), "Away " + random.nextInt(20));
+                        } else if (operation < 60) {
+                            scoreboardService.updateScore(random.nextInt(10), random.nextInt(10), random.nextInt(10));
+                        } else if (operation < 75) {
+                            scoreboardService.finishMatch(random.nextInt(10));
+                        } else if (operation < 76) {
+                            scoreboardService.reset();
+                        } else if (operation < 90) {
+                            assertSummaryWellFormed(scoreboardService.getFormatedSortedSummary());
+                        } else {
+                            scoreboardService.getSortedMatches();
+                            scoreboardService.findMatchesByTeam("Home");
+                        }
+                    } catch (IllegalArgumentException e) {
+                        assertEquals(ALREADY_EXISTS, e.getMessage());
+                    } catch (IndexOutOfBoundsException e) {
+                        assertEquals(MATCH_INDEX_IS_OUT_OF_RANGE, e.getMessage());
+                    }
+                }
+            });
+
+            // Once all threads are done, the board must be consistent and sorted
+            List<Match> matches = scoreboardService.getMatches();
+            assertNoDuplicateTeams(matches);
+            assertTeamIndexConsistent();
+            assertSorted(scoreboardService.getSortedMatches());
+            assertSummaryWellFormed(scoreboardService.getFormatedSortedSummary());
+        }
+    }
+
+    private void runConcurrently(ThreadTask task) throws InterruptedException {
+        // CountDownLatch to release all threads at once and maximise contention
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        try (ExecutorService executor = newFixedThreadPool(NUM_THREADS)) {
+            for (int i = 0; i < NUM_THREADS; i++) {
+                final int thread = i;
+                executor.submit(() -> {
+                    try {
+                        startLatch.await();
+                        task.run(thread);
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                });
+            }
+            startLatch.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Threads should finish");
+        }
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError("Concurrent operation failed: " + failures.peek());
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    private void assertTeamIndexConsistent() {
+        // Every live match is found by its teams and the index holds no finished match
+        List<Match> matches = scoreboardService.getMatches();
+        Set<Match> indexed = new HashSet<>();
+        for (Match match : matches) {
+            List<Match> found = scoreboardService.findMatchesByTeam(match.getHomeTeam());
+            assertTrue(found.contains(match), "Live match should be indexed: " + match);
+            indexed.addAll(found);
+        }
+        assertTrue(matches.containsAll(indexed), "Index should only hold live matches");
+    }
+
+    private static void assertNoDuplicateTeams(List<Match> matches) {
+        Set<String> homeTeams = new HashSet<>();
+        Set<String> awayTeams = new HashSet<>();
+        for (Match match : matches) {
+            assertTrue(homeTeams.add(match.getHomeTeam()), "Duplicate home team: " + match.getHomeTeam());
+            assertTrue(awayTeams.add(match.getAwayTeam()), "Duplicate away team: " + match.getAwayTeam());
+        }
+    }
+
+    private static void assertSorted(List<Match> sorted) {
+        for (int i = 1; i < sorted.size(); i++) {
+            Match previous = sorted.get(i - 1);
+            Match current = sorted.get(i);
+            assertTrue(previous.getTotalScore() > current.getTotalScore()
+                            || previous.getTotalScore() == current.getTotalScore()
+                            && !previous.getStartTime().isBefore(current.getStartTime()),
+                    "Summary out of order: " + previous + " before " + current);
+        }
+    }
+
+    private static void assertSummaryWellFormed(List<String> summary) {
+        // Lines are numbered 1..n without gaps, whatever ran concurrently
+        List<Integer> positions = new ArrayList<>();
+        for (String line : summary) {
+            positions.add(Integer.parseInt(parse(line).group(1)));
+        }
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals(i + 1, (int) positions.get(i), "Summary should be numbered without gaps: " + summary);
+        }
+    }
+
+    private static Matcher parse(String line) {
+        Matcher matcher = SUMMARY_LINE.matcher(line);
+        assertTrue(matcher.matches(), "Malformed summary line: " + line);
+        return matcher;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -342,6 +342,52 @@ public class ScoreboardServiceTest {
         assertEquals("5. " + TEAM_G + " 3 - 1 " + TEAM_H, summary.get(4));
     }
 
+    @Test
+    public void testFindMatchesByTeam() {
+        //Start three matches
+        scoreboardService.startMatch("Côte d'Ivoire", "Brazil");
+        scoreboardService.startMatch("Bosnia", "Brunei");
+        scoreboardService.startMatch(TEAM_A, TEAM_B);
+
+        //Case and diacritic insensitive lookup by full name
+        List<Match> found = scoreboardService.findMatchesByTeam("cote D'IVOIRE");
+        assertEquals(1, found.size(), "Match should be found by normalized team name");
+        assertEquals("Brazil", found.getFirst().getAwayTeam());
+
+        //Lookup by the prefix of any word of the name
+        assertEquals(1, scoreboardService.findMatchesByTeam("ivo").size(), "Match should be found by word prefix");
+        //Prefix shared by teams of two matches, in start order
+        found = scoreboardService.findMatchesByTeam("br");
+        assertEquals(2, found.size(), "Both matches should be found by shared prefix");
+        assertEquals("Brazil", found.get(0).getAwayTeam());
+        assertEquals("Brunei", found.get(1).getAwayTeam());
+        //Unknown team
+        assertTrue(scoreboardService.findMatchesByTeam("Germany").isEmpty(), "No match should be found for unknown team");
+    }
+
+    @Test
+    public void testFindMatchesByTeamAfterFinishAndReset() {
+        //Start and assert two matches
+        startAndAssertTwoMatches();
+        //Finish the first match
+        scoreboardService.finishMatch(0);
+        //Finished match should not be found anymore
+        assertTrue(scoreboardService.findMatchesByTeam(TEAM_A).isEmpty(), "Finished match should be removed from the index");
+        assertEquals(1, scoreboardService.findMatchesByTeam(TEAM_C).size(), "Live match should still be found");
+
+        //Reset the scoreboard
+        scoreboardService.reset();
+        assertTrue(scoreboardService.findMatchesByTeam(TEAM_C).isEmpty(), "Index should be empty after reset");
+    }
+
+    @Test
+    public void testFindMatchesByTeamWithEmptyName() {
+        //Search with empty team name
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> scoreboardService.findMatchesByTeam(""));
+        //Check that the exception message is correct
+        assertEquals(CANNOT_BE_NULL_OR_EMPTY, exception.getMessage());
+    }
+
     @Test
     public void testReset() {
         //Start a match
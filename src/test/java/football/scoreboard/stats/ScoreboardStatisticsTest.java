@@ -0,0 +1,117 @@
+package football.scoreboard.stats;
+
+import football.scoreboard.SimulatedClock;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreboardStatisticsTest {
+    private final SimulatedClock clock = new SimulatedClock();
+    private final ScoreboardService service = new ScoreboardService();
+    //Goals in the last 15 minutes, in 90 buckets of 10 seconds
+    private final ScoreboardStatistics statistics = new ScoreboardStatistics(clock, Duration.ofMinutes(15), 90);
+
+    {
+        service.addListener(statistics);
+    }
+
+    @Test
+    public void testGoalsInWindow() {
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.updateScore(0, 1, 0);
+        service.updateScore(1, 0, 1);
+
+        //Ten minutes later one more goal, all three are within the last 15 minutes
+        clock.advance(Duration.ofMinutes(10));
+        service.updateScore(0, 2, 0);
+        assertEquals(3, statistics.snapshot().goalsInWindow());
+
+        //Six minutes later the first two goals have left the window
+        clock.advance(Duration.ofMinutes(6));
+        assertEquals(1, statistics.snapshot().goalsInWindow());
+
+        //A disallowed goal is taken back out of the window, and out of the day
+        service.updateScore(0, 1, 0);
+        assertEquals(0, statistics.snapshot().goalsInWindow());
+        assertEquals(2, statistics.snapshot().goalsToday());
+    }
+
+    @Test
+    public void testDailyAggregates() {
+        service.startMatch("Côte d'Ivoire", TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.startMatch(TEAM_E, TEAM_F);
+        service.updateScore(0, 3, 1);
+        service.updateScore(1, 1, 1);
+        //A finished match stays in the day's statistics
+        service.finishMatch(2);
+
+        ScoreboardStats stats = statistics.snapshot();
+        assertEquals(6, stats.goalsToday());
+        assertEquals(3, stats.matchesToday());
+        assertEquals(2, stats.liveMatches());
+        assertEquals(2.0, stats.averageGoalsPerMatch());
+        assertEquals(LocalDate.of(2023, 11, 14), stats.day());
+        assertEquals(15, stats.windowMinutes());
+
+        //Teams are found by normalized name
+        assertEquals(3, statistics.goalsOf("cote d'ivoire").goalsToday());
+        assertEquals(1, statistics.goalsOf(TEAM_D).goalsToday());
+        assertEquals(0, statistics.goalsOf("Unknown").goalsToday());
+    }
+
+    @Test
+    public void testHighestScoringMatch() {
+        assertNull(statistics.snapshot().highestScoringMatch(), "No match yet");
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.startMatch(TEAM_E, TEAM_F);
+        service.updateScore(0, 2, 0);
+        service.updateScore(1, 1, 1);
+        service.updateScore(2, 3, 0);
+        long firstId = service.getMatches().get(0).getId();
+        assertEquals(new MatchScore(service.getMatches().get(2).getId(), TEAM_E, TEAM_F, 3, 0),
+                statistics.snapshot().highestScoringMatch());
+
+        //The leader climbs, then is corrected below the others: the last match to reach 2 goals takes over
+        service.updateScore(2, 4, 0);
+        service.updateScore(2, 0, 0);
+        assertEquals(new MatchScore(service.getMatches().get(1).getId(), TEAM_C, TEAM_D, 1, 1),
+                statistics.snapshot().highestScoringMatch());
+
+        //That match is corrected too, the other match with 2 goals is found
+        service.updateScore(1, 1, 0);
+        assertEquals(new MatchScore(firstId, TEAM_A, TEAM_B, 2, 0), statistics.snapshot().highestScoringMatch());
+
+        //Finishing does not remove the highest scoring match of the day
+        service.finishMatch(0);
+        service.updateScore(1, 1, 0);
+        assertEquals(new MatchScore(firstId, TEAM_A, TEAM_B, 2, 0), statistics.snapshot().highestScoringMatch());
+    }
+
+    @Test
+    public void testDayRollOver() {
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.updateScore(0, 5, 0);
+        service.updateScore(1, 1, 0);
+        service.finishMatch(0);
+
+        //After midnight only the live match is left, with its current score
+        clock.advance(Duration.between(clock.instant(), LocalDate.of(2023, 11, 15).atStartOfDay(ZoneOffset.UTC).toInstant()));
+        ScoreboardStats stats = statistics.snapshot();
+        assertEquals(LocalDate.of(2023, 11, 15), stats.day());
+        assertEquals(1, stats.matchesToday());
+        assertEquals(1, stats.goalsToday());
+        assertEquals(new MatchScore(service.getMatches().getFirst().getId(), TEAM_C, TEAM_D, 1, 0), stats.highestScoringMatch());
+        assertEquals(0, statistics.goalsOf(TEAM_A).goalsToday());
+        assertEquals(1, statistics.goalsOf(TEAM_C).goalsToday());
+    }
+}
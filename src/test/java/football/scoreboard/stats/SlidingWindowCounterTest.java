@@ -0,0 +1,44 @@
+package football.scoreboard.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void testValuesLeaveTheWindowBucketByBucket() {
+        //A 60 second window in 6 buckets of 10 seconds
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 6);
+        counter.add(0, 1);
+        counter.add(15_000, 2);
+        counter.add(59_999, 3);
+        assertEquals(6, counter.sum(59_999));
+
+        //The first bucket leaves at 60 seconds, the second at 70
+        assertEquals(5, counter.sum(60_000));
+        assertEquals(5, counter.sum(69_999));
+        assertEquals(3, counter.sum(70_000));
+
+        //Negative values are corrections and leave the window the same way
+        counter.add(70_000, -1);
+        assertEquals(2, counter.sum(70_000));
+        assertEquals(0, counter.sum(130_000));
+    }
+
+    @Test
+    public void testGapsAndClockSteps() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000, 6);
+        counter.add(1_000, 4);
+
+        //A gap longer than the window clears everything at once
+        counter.add(1_000_000, 1);
+        assertEquals(1, counter.sum(1_000_000));
+
+        //A clock stepping back adds to the newest bucket
+        counter.add(900_000, 2);
+        assertEquals(3, counter.sum(1_000_000));
+
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(5, 6));
+    }
+}
@@ -0,0 +1,154 @@
+package football.scoreboard.store;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import football.scoreboard.alert.AlertEngine;
+import football.scoreboard.alert.AlertFeed;
+import football.scoreboard.alert.AlertRule;
+import football.scoreboard.history.BoardHistory;
+import football.scoreboard.service.ScoreboardService;
+import football.scoreboard.stats.ScoreboardStatistics;
+import football.scoreboard.subscription.SubscriptionRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Compares GC pauses of the heap and the off-heap match store under the same load: a large board that is kept full
+ * while matches are updated, finished, restarted, searched and read. The load goes through a {@link ScoreboardService}
+ * with the listeners of the default configuration attached, so everything the engine allocates per change counts too.
+ * Pauses are taken from the GC notifications, one per stop-the-world collection; concurrent cycles are left out, as
+ * the application keeps running during them. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class MatchStoreGcBenchmark {
+    private static final int MATCHES = 50_000;
+    private static final int OPERATIONS = 500_000;
+    private static final int READ_EVERY = 5_000;
+    private static final String ALERT_RULES = "high-scoring: total >= 5; entered-top-3: total > 0 and rank <= 3; away-side-leads-by-2: away - home >= 2";
+
+    @Test
+    public void compareGcPauses() throws InterruptedException {
+        System.out.printf("%-8s %10s %8s %10s %10s %10s %14s%n", "store", "time (ms)", "pauses", "p50 (ms)", "p99 (ms)",
+                "max (ms)", "live heap (MB)");
+        //Warm up both stores first, so that JIT compilation does not count against the first one
+        run("warm-up", () -> new CopyOnWriteMatchStore(), MATCHES / 10, false);
+        run("warm-up", () -> new OffHeapMatchStore(4096), MATCHES / 10, false);
+
+        run("heap", CopyOnWriteMatchStore::new, MATCHES, true);
+        run("offheap", () -> new OffHeapMatchStore(4096), MATCHES, true);
+    }
+
+    private static void run(String name, Supplier<MatchStore> factory, int matches, boolean report) throws InterruptedException {
+        System.gc();
+        PauseRecorder pauses = new PauseRecorder();
+        long start = System.nanoTime();
+
+        ScoreboardService engine = withDefaultListeners(new ScoreboardService(factory.get()));
+        for (int i = 0; i < matches; i++) {
+            engine.startMatch("Home " + i, "Away " + i);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        int next = matches;
+        long checksum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            int operation = random.nextInt(100);
+            int index = random.nextInt(matches);
+            if (operation < 98) {
+                engine.updateScore(index, random.nextInt(10), random.nextInt(10));
+            } else {
+                //Finish a match and start another one, as in a rolling grassroots schedule
+                engine.finishMatch(index);
+                engine.startMatch("Home " + next, "Away " + next);
+                next++;
+            }
+            if (i % READ_EVERY == 0) {
+                checksum += engine.getSortedMatches().getFirst().getTotalScore();
+                checksum += engine.findMatchesByTeam("Home " + (next - 1)).size();
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        List<Long> pauseMillis = pauses.stop();
+        //Heap still used by the board once all garbage is collected, the part every old generation collection has to trace
+        System.gc();
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        engine.close();
+        if (report) {
+            System.out.printf("%-8s %10d %8d %10d %10d %10d %14d   (checksum %d)%n", name, elapsedMillis, pauseMillis.size(),
+                    percentile(pauseMillis, 50), percentile(pauseMillis, 99), percentile(pauseMillis, 100),
+                    heapUsed / (1024 * 1024), checksum);
+        }
+    }
+
+    //The listeners the default configuration attaches, except the match clock, which needs a ticking thread
+    private static ScoreboardService withDefaultListeners(ScoreboardService engine) {
+        engine.attachHistory(new BoardHistory(4096, 64, Clock.systemUTC()));
+        engine.addListener(new SubscriptionRegistry(1024, 10_000, 100, 100, 600_000, System::nanoTime));
+        engine.addListener(new AlertEngine(AlertRule.compileAll(ALERT_RULES), new AlertFeed(1024), Clock.systemUTC()));
+        engine.addListener(new ScoreboardStatistics(Clock.systemDefaultZone(), Duration.ofMinutes(15), 90));
+        return engine;
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    //Collects the duration of every stop-the-world collection while it is registered
+    private static class PauseRecorder implements NotificationListener {
+        private final List<Long> pauseMillis = new ArrayList<>();
+
+        PauseRecorder() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+            }
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            //G1 Concurrent GC, ZGC Cycles and Shenandoah Cycles report concurrent work, their pauses are reported separately
+            if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+                return;
+            }
+            pauseMillis.add(info.getGcInfo().getDuration());
+        }
+
+        //Returns the pauses recorded, sorted
+        List<Long> stop() throws InterruptedException {
+            //Notifications are sent from a service thread, give the last ones time to arrive
+            Thread.sleep(200);
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                try {
+                    ((NotificationEmitter) collector).removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            synchronized (this) {
+                List<Long> sorted = new ArrayList<>(pauseMillis);
+                sorted.sort(null);
+                return sorted;
+            }
+        }
+    }
+}
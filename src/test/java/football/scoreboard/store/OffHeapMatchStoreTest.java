@@ -0,0 +1,105 @@
+package football.scoreboard.store;
+
+import football.scoreboard.Match;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapMatchStoreTest {
+    private OffHeapMatchStore store;
+
+    @BeforeEach
+    public void setUp() {
+        //Two slots per chunk, so that a few matches already span several chunks
+        store = new OffHeapMatchStore(2);
+    }
+
+    @Test
+    public void testAddAndGet() {
+        //Add matches across two chunks
+        store.add(TEAM_A, TEAM_B);
+        store.add(TEAM_C, TEAM_D);
+        store.add("Côte d'Ivoire", TEAM_F);
+
+        //Check that the matches are stored in start order
+        assertEquals(3, store.size());
+        assertEquals(TEAM_C, store.get(1).getHomeTeam());
+        assertEquals("Côte d'Ivoire", store.get(2).getHomeTeam(), "Names should survive the UTF-8 round trip");
+        assertEquals(List.of(TEAM_A + " 0 - 0 " + TEAM_B, TEAM_C + " 0 - 0 " + TEAM_D, "Côte d'Ivoire 0 - 0 " + TEAM_F),
+                store.snapshot().stream().map(Match::toString).toList());
+        assertEquals(2L * 2 * OffHeapMatchStore.SLOT_SIZE, store.offHeapBytes(), "Two chunks should be reserved");
+    }
+
+    @Test
+    public void testScoreUpdatesAreSharedByViews() {
+        //Update the score through one view
+        Match added = store.add(TEAM_A, TEAM_B);
+        added.updateScore(3, 1);
+
+        //Check that another view of the same slot sees it
+        Match read = store.get(0);
+        assertEquals(3, read.getHomeScore());
+        assertEquals(1, read.getAwayScore());
+        assertEquals(4, read.getTotalScore());
+        assertEquals(added, read, "Views of the same match should be equal");
+    }
+
+    @Test
+    public void testRemovedSlotIsReused() {
+        //Finish the first match and start another one in its slot
+        Match finished = store.add(TEAM_A, TEAM_B);
+        finished.updateScore(2, 2);
+        store.add(TEAM_C, TEAM_D);
+        store.remove(0);
+        Match reused = store.add(TEAM_E, TEAM_F);
+        reused.updateScore(5, 0);
+
+        //Check that the reserved memory did not grow and the old view is not affected by the new match
+        assertEquals(2L * OffHeapMatchStore.SLOT_SIZE, store.offHeapBytes(), "Freed slot should be reused");
+        assertNotEquals(finished, reused, "Views of different matches should not be equal");
+        assertEquals(TEAM_A + " 2 - 2 " + TEAM_B, finished.toString(), "Finished view should keep its last score");
+        finished.updateScore(9, 9);
+        assertEquals(TEAM_E + " 5 - 0 " + TEAM_F, store.get(1).toString(), "Finished view should not write to the slot");
+    }
+
+    @Test
+    public void testClear() {
+        store.add(TEAM_A, TEAM_B);
+        store.add(TEAM_C, TEAM_D);
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertTrue(store.snapshot().isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(0));
+    }
+
+    @Test
+    public void testTooLongTeamName() {
+        //Names longer than the slot field are rejected
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> store.add("x".repeat(200), TEAM_B));
+        assertEquals(OffHeapMatchStore.TEAM_NAME_TOO_LONG, exception.getMessage());
+    }
+
+    @Test
+    public void testScoreboardServiceWithOffHeapStore() {
+        //The service behaves the same on top of the off-heap store
+        ScoreboardService scoreboardService = new ScoreboardService(store);
+        scoreboardService.startMatch(TEAM_A, TEAM_B);
+        scoreboardService.startMatch(TEAM_C, TEAM_D);
+        scoreboardService.updateScore(0, 1, 0);
+        scoreboardService.updateScore(1, 2, 2);
+
+        assertEquals(List.of("1. " + TEAM_C + " 2 - 2 " + TEAM_D, "2. " + TEAM_A + " 1 - 0 " + TEAM_B),
+                scoreboardService.getFormatedSortedSummary());
+        assertEquals(1, scoreboardService.findMatchesByTeam(TEAM_A).size());
+
+        //Finishing removes the match from the team index too
+        scoreboardService.finishMatch(0);
+        assertTrue(scoreboardService.findMatchesByTeam(TEAM_A).isEmpty(), "Finished match should not be found");
+    }
+}
@@ -0,0 +1,238 @@
+package football.scoreboard.subscription;
+
+import football.scoreboard.Match;
+import football.scoreboard.service.ScoreboardService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static football.scoreboard.service.ScoreboardServiceTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubscriptionRegistryTest {
+    private static final String CLIENT = "client";
+    private final ScoreboardService service = new ScoreboardService();
+    private final AtomicLong nanoTime = new AtomicLong(0);
+    private final SubscriptionRegistry registry = new SubscriptionRegistry(16, 100_000, 100_000, 100, 60_000, nanoTime::get);
+
+    {
+        service.addListener(registry);
+    }
+
+    @Test
+    public void testTeamAndMatchIdRouting() {
+        //Team names are matched normalized
+        Subscription ivoryCoast = registry.subscribe(new InterestFilter(Set.of("cote d'ivoire"), null, null, null), CLIENT);
+        service.startMatch("Côte d'Ivoire", TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        long secondMatch = service.getMatches().get(1).getId();
+        Subscription byId = registry.subscribe(new InterestFilter(null, Set.of(secondMatch), null, null), CLIENT);
+
+        service.updateScore(0, 1, 0);
+        service.updateScore(1, 0, 1);
+
+        assertEquals(List.of(ScoreboardEvent.Type.STARTED, ScoreboardEvent.Type.SCORE_UPDATED), types(ivoryCoast));
+        List<ScoreboardEvent> events = registry.poll(byId.getId(), 10).events();
+        assertEquals(1, events.size());
+        assertEquals(new ScoreboardEvent(4, ScoreboardEvent.Type.SCORE_UPDATED, secondMatch, TEAM_C, TEAM_D, 0, 1), events.getFirst());
+    }
+
+    @Test
+    public void testScoreThreshold() {
+        Subscription highScoring = registry.subscribe(new InterestFilter(null, null, 3, null), CLIENT);
+        service.startMatch(TEAM_A, TEAM_B);
+        service.updateScore(0, 1, 1);
+        assertTrue(types(highScoring).isEmpty(), "Matches below the threshold should not be delivered");
+
+        //Reaching the threshold and a correction back below it are both delivered
+        service.updateScore(0, 2, 1);
+        service.updateScore(0, 1, 1);
+        service.updateScore(0, 1, 0);
+        assertEquals(List.of(ScoreboardEvent.Type.SCORE_UPDATED, ScoreboardEvent.Type.SCORE_UPDATED), types(highScoring));
+    }
+
+    @Test
+    public void testTopN() {
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.startMatch(TEAM_E, TEAM_F);
+        service.updateScore(0, 2, 0);
+        //Board: A-B 2-0, E-F 0-0, C-D 0-0
+        Subscription leader = registry.subscribe(new InterestFilter(null, null, null, 1), CLIENT);
+        Subscription topTwo = registry.subscribe(new InterestFilter(null, null, null, 2), CLIENT);
+
+        //C-D is third and stays below the top two
+        service.updateScore(1, 0, 0);
+        assertTrue(types(leader).isEmpty());
+        assertTrue(types(topTwo).isEmpty());
+
+        //E-F moves from second to first and pushes A-B out of the leader's top one
+        service.updateScore(2, 3, 0);
+        assertEquals(List.of(ScoreboardEvent.Type.SCORE_UPDATED, ScoreboardEvent.Type.RANK_CHANGED), types(leader));
+        assertEquals(List.of(ScoreboardEvent.Type.SCORE_UPDATED), types(topTwo));
+
+        //A-B is second now, only the top two hears about it
+        service.updateScore(0, 2, 1);
+        assertTrue(types(leader).isEmpty());
+        assertEquals(List.of(ScoreboardEvent.Type.SCORE_UPDATED), types(topTwo));
+
+        assertEquals(List.of(TEAM_E, TEAM_A), registry.matchesFor(topTwo.getId(), service.getSortedMatches()).stream()
+                .map(Match::getHomeTeam).toList());
+    }
+
+    @Test
+    public void testTopNHearsAboutMatchesPushedAcrossN() {
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.startMatch(TEAM_E, TEAM_F);
+        //Board: E-F, C-D, A-B, all 0-0 and the latest start first
+        Subscription topTwo = registry.subscribe(new InterestFilter(null, null, null, 2), CLIENT);
+
+        //A new match goes first and pushes C-D out of the top two
+        service.startMatch(TEAM_G, TEAM_H);
+        assertEquals(List.of(TEAM_G + ":STARTED", TEAM_C + ":RANK_CHANGED"), events(topTwo));
+
+        //Finishing it pulls C-D back in
+        service.finishMatch(3);
+        assertEquals(List.of(TEAM_G + ":FINISHED", TEAM_C + ":RANK_CHANGED"), events(topTwo));
+
+        //A-B scores, goes first and pushes C-D out again. E-F only moves within the top two.
+        service.updateScore(0, 1, 0);
+        assertEquals(List.of(TEAM_A + ":SCORE_UPDATED", TEAM_C + ":RANK_CHANGED"), events(topTwo));
+        assertEquals(List.of(TEAM_A, TEAM_E), registry.matchesFor(topTwo.getId(), service.getSortedMatches()).stream()
+                .map(Match::getHomeTeam).toList());
+    }
+
+    @Test
+    public void testTopNIsCapped() {
+        SubscriptionRegistry registry = new SubscriptionRegistry(16, 100, 100, 2, 60_000, nanoTime::get);
+
+        assertEquals(SubscriptionRegistry.TOP_N_TOO_LARGE + "2.", assertThrows(IllegalArgumentException.class,
+                () -> registry.subscribe(new InterestFilter(null, null, null, Integer.MAX_VALUE), CLIENT)).getMessage());
+        assertEquals(0, registry.size(), "A rejected subscription should not count against the client");
+        registry.subscribe(new InterestFilter(null, null, null, 2), CLIENT);
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testRankCrossingAtTheTopNCap() {
+        SubscriptionRegistry registry = new SubscriptionRegistry(16, 100, 100, 2, 60_000, nanoTime::get);
+        service.addListener(registry);
+        service.startMatch(TEAM_A, TEAM_B);
+        service.startMatch(TEAM_C, TEAM_D);
+        service.startMatch(TEAM_E, TEAM_F);
+        Subscription atCap = registry.subscribe(new InterestFilter(null, null, null, 2), CLIENT);
+
+        //Board: E-F, C-D, A-B. A-B scores, goes first and pushes C-D out of the top two.
+        service.updateScore(0, 1, 0);
+        assertEquals(List.of(TEAM_A + ":SCORE_UPDATED", TEAM_C + ":RANK_CHANGED"), registry.poll(atCap.getId(), 100).events()
+                .stream().map(event -> event.homeTeam() + ":" + event.type()).toList());
+    }
+
+    @Test
+    public void testQueueIsBoundedAndResetReachesEveryone() {
+        Subscription busy = registry.subscribe(new InterestFilter(Set.of(TEAM_A), null, null, null), CLIENT);
+        Subscription quiet = registry.subscribe(new InterestFilter(Set.of(TEAM_J), null, null, null), CLIENT);
+        service.startMatch(TEAM_A, TEAM_B);
+        for (int i = 1; i <= 20; i++) {
+            service.updateScore(0, i, 0);
+        }
+
+        //The queue keeps the last 16 events and counts the dropped ones
+        SubscriptionEvents events = registry.poll(busy.getId(), 100);
+        assertEquals(16, events.events().size());
+        assertEquals(5, events.missed());
+        assertEquals(20, events.events().getLast().homeScore());
+        assertEquals(0, registry.poll(busy.getId(), 100).missed());
+
+        service.reset();
+        assertEquals(List.of(ScoreboardEvent.Type.RESET), types(busy));
+        assertEquals(List.of(ScoreboardEvent.Type.RESET), types(quiet));
+    }
+
+    @Test
+    public void testUnsubscribeAndValidation() {
+        Subscription subscription = registry.subscribe(new InterestFilter(Set.of(TEAM_A), null, null, null), CLIENT);
+        assertTrue(registry.unsubscribe(subscription.getId()));
+        assertFalse(registry.unsubscribe(subscription.getId()));
+        assertThrows(IllegalArgumentException.class, () -> registry.poll(subscription.getId(), 10));
+        service.startMatch(TEAM_A, TEAM_B);
+        assertEquals(0, registry.size());
+
+        assertEquals(SubscriptionRegistry.INVALID_FILTER, assertThrows(IllegalArgumentException.class,
+                () -> new InterestFilter(Set.of(" "), Set.of(), null, null)).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new InterestFilter(null, null, null, 0));
+        SubscriptionRegistry full = new SubscriptionRegistry(16, 1, 1, 100, 60_000, nanoTime::get);
+        full.subscribe(new InterestFilter(Set.of(TEAM_A), null, null, null), CLIENT);
+        assertEquals(SubscriptionRegistry.TOO_MANY_SUBSCRIPTIONS, assertThrows(IllegalStateException.class,
+                () -> full.subscribe(new InterestFilter(Set.of(TEAM_B), null, null, null), CLIENT)).getMessage());
+    }
+
+    @Test
+    public void testSubscriptionsPerClientAreCapped() {
+        SubscriptionRegistry registry = new SubscriptionRegistry(16, 100, 2, 100, 60_000, nanoTime::get);
+        Subscription first = registry.subscribe(new InterestFilter(Set.of(TEAM_A), null, null, null), CLIENT);
+        registry.subscribe(new InterestFilter(Set.of(TEAM_B), null, null, null), CLIENT);
+
+        //The client holds its maximum, other clients can still subscribe
+        assertEquals(SubscriptionRegistry.TOO_MANY_SUBSCRIPTIONS_FOR_CLIENT, assertThrows(IllegalStateException.class,
+                () -> registry.subscribe(new InterestFilter(Set.of(TEAM_C), null, null, null), CLIENT)).getMessage());
+        registry.subscribe(new InterestFilter(Set.of(TEAM_C), null, null, null), "other-client");
+
+        //Removing a subscription gives the client room again
+        registry.unsubscribe(first.getId());
+        registry.subscribe(new InterestFilter(Set.of(TEAM_C), null, null, null), CLIENT);
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    public void testIdleSubscriptionsExpire() {
+        Subscription idle = registry.subscribe(new InterestFilter(Set.of(TEAM_A), null, null, null), CLIENT);
+        Subscription polled = registry.subscribe(new InterestFilter(Set.of(TEAM_B), null, null, null), CLIENT);
+
+        //Only the second subscription is polled within the time to live
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        registry.poll(polled.getId(), 10);
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        registry.poll(polled.getId(), 10);
+
+        assertEquals(1, registry.size(), "Idle subscription should be removed");
+        assertThrows(IllegalArgumentException.class, () -> registry.poll(idle.getId(), 10));
+        service.startMatch(TEAM_A, TEAM_B);
+        assertEquals(List.of(ScoreboardEvent.Type.STARTED), types(polled), "Polled subscription should be kept");
+
+        //Once it is no longer polled it expires as well
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        registry.subscribe(new InterestFilter(Set.of(TEAM_C), null, null, null), CLIENT);
+        assertEquals(1, registry.size(), "Subscription not polled since should be removed");
+    }
+
+    @Test
+    public void testFanOutOnlyReachesInterestedSubscribers() {
+        //Many subscribers following one team each, only the followers of the playing teams receive anything
+        final int SUBSCRIBERS = 20_000;
+        Subscription[] subscriptions = new Subscription[SUBSCRIBERS];
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            subscriptions[i] = registry.subscribe(new InterestFilter(Set.of("Team " + i), null, null, null), CLIENT);
+        }
+        service.startMatch("Team 7", "Team 11");
+        service.updateScore(0, 1, 0);
+
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            int expected = i == 7 || i == 11 ? 2 : 0;
+            assertEquals(expected, registry.poll(subscriptions[i].getId(), 10).events().size(), "Subscriber " + i);
+        }
+    }
+
+    private List<String> events(Subscription subscription) {
+        return registry.poll(subscription.getId(), 100).events().stream()
+                .map(event -> event.homeTeam() + ":" + event.type()).toList();
+    }
+
+    private List<ScoreboardEvent.Type> types(Subscription subscription) {
+        return registry.poll(subscription.getId(), 100).events().stream().map(ScoreboardEvent::type).toList();
+    }
+}